@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.benchmark;
+
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration;
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The H2 in-memory connection factories used by the benchmarks.
+ */
+final class BenchmarkDatabase {
+
+    static final int ROWS = 1000;
+
+    private static final String URL = "r2dbc:h2:mem:///benchmark;DB_CLOSE_DELAY=-1";
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * @return The H2 driver connection factory
+     */
+    static ConnectionFactory raw() {
+        return ConnectionFactories.get(URL);
+    }
+
+    /**
+     * @return A connection pool over the H2 driver, configured with the defaults of the module
+     */
+    static R2dbcConnectionPool pooled() {
+        return R2dbcConnectionPool.create("benchmark", raw(), new R2dbcPoolConfiguration());
+    }
+
+    /**
+     * Creates the {@code book} table with {@value #ROWS} rows, unless it exists.
+     *
+     * @param connectionFactory The connection factory
+     */
+    static void createSchema(ConnectionFactory connectionFactory) {
+        Mono.usingWhen(connectionFactory.create(), BenchmarkDatabase::createSchema, Connection::close).block();
+    }
+
+    private static Mono<Void> createSchema(Connection connection) {
+        return execute(connection, "CREATE TABLE IF NOT EXISTS book(id INT PRIMARY KEY, title VARCHAR(255), pages INT)")
+                .then(execute(connection, "DELETE FROM book"))
+                .thenMany(Flux.range(0, ROWS).concatMap(i -> Flux.from(connection.createStatement("INSERT INTO book VALUES($1, $2, $3)")
+                                .bind(0, i)
+                                .bind(1, "Book " + i)
+                                .bind(2, 100 + i)
+                                .execute())
+                        .flatMap(result -> result.getRowsUpdated())))
+                .then();
+    }
+
+    private static Mono<Long> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .reduce(0L, Long::sum);
+    }
+}
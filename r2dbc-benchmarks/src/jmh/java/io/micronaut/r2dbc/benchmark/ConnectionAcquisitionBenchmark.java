@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.benchmark;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link ConnectionFactory#create()} followed by {@link Connection#close()}, on the H2
+ * driver and on the connection pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConnectionAcquisitionBenchmark {
+
+    @Param({"raw", "pooled"})
+    public String connectionFactoryType;
+
+    private ConnectionFactory connectionFactory;
+
+    @Setup
+    public void setup() {
+        connectionFactory = "pooled".equals(connectionFactoryType) ? BenchmarkDatabase.pooled() : BenchmarkDatabase.raw();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (connectionFactory instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+    }
+
+    @Benchmark
+    public Connection acquireAndRelease() {
+        return Mono.from(connectionFactory.create())
+                .flatMap(connection -> Mono.from(connection.close()).thenReturn(connection))
+                .block();
+    }
+}
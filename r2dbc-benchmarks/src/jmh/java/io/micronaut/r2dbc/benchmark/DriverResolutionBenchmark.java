@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.benchmark;
+
+import io.micronaut.r2dbc.support.ConnectionFactoryProviders;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of the first driver {@link ConnectionFactory} of a fresh JVM, as at the startup of an
+ * application, by asking every provider of the classpath with {@link ConnectionFactories} and by resolving the
+ * provider of the driver from the build-time index of {@link ConnectionFactoryProviders}. Each measurement runs in its
+ * own fork, so that neither the providers nor their classes are loaded yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class DriverResolutionBenchmark {
+
+    private final ConnectionFactoryOptions options = ConnectionFactoryOptions.parse("r2dbc:h2:mem:///resolution");
+
+    @Benchmark
+    public ConnectionFactory serviceLoader() {
+        return ConnectionFactories.get(options);
+    }
+
+    @Benchmark
+    public ConnectionFactory driverIndex() {
+        return ConnectionFactoryProviders.create(options);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.benchmark;
+
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Readable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the cost of mapping rows with {@link io.r2dbc.spi.Result#map(Function)}, accessing the columns by name
+ * and by index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultMappingBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int rows;
+
+    private R2dbcConnectionPool connectionPool;
+    private Connection connection;
+
+    @Setup
+    public void setup() {
+        connectionPool = BenchmarkDatabase.pooled();
+        BenchmarkDatabase.createSchema(connectionPool);
+        connection = Mono.from(connectionPool.create()).block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Mono.from(connection.close()).block();
+        connectionPool.dispose();
+    }
+
+    @Benchmark
+    public List<Book> mapByName() {
+        return query(row -> new Book(row.get("id", Integer.class), row.get("title", String.class), row.get("pages", Integer.class)));
+    }
+
+    @Benchmark
+    public List<Book> mapByIndex() {
+        return query(row -> new Book(row.get(0, Integer.class), row.get(1, String.class), row.get(2, Integer.class)));
+    }
+
+    private List<Book> query(Function<Readable, Book> mapper) {
+        return Flux.from(connection.createStatement("SELECT id, title, pages FROM book WHERE id < $1")
+                        .bind(0, rows)
+                        .execute())
+                .flatMap(result -> result.map(mapper))
+                .collectList()
+                .block();
+    }
+
+    /**
+     * The mapped row.
+     *
+     * @param id The id
+     * @param title The title
+     * @param pages The number of pages
+     */
+    public record Book(Integer id, String title, Integer pages) {
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.benchmark;
+
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.r2dbc.spi.Connection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round-trip of simple statements on an acquired connection, and of a statement including the
+ * acquisition of a pooled connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatementBenchmark {
+
+    private R2dbcConnectionPool connectionPool;
+
+    @Setup
+    public void setup() {
+        connectionPool = BenchmarkDatabase.pooled();
+        BenchmarkDatabase.createSchema(connectionPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.dispose();
+    }
+
+    @Benchmark
+    public Integer selectOne(ConnectionState state) {
+        return Flux.from(state.connection.createStatement("SELECT 1").execute())
+                .flatMap(result -> result.map(row -> row.get(0, Integer.class)))
+                .blockLast();
+    }
+
+    @Benchmark
+    public String selectById(ConnectionState state) {
+        return Flux.from(state.connection.createStatement("SELECT title FROM book WHERE id = $1")
+                        .bind(0, ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ROWS))
+                        .execute())
+                .flatMap(result -> result.map(row -> row.get(0, String.class)))
+                .blockLast();
+    }
+
+    @Benchmark
+    public String acquireAndSelectById() {
+        return Flux.usingWhen(connectionPool.create(),
+                        connection -> Flux.from(connection.createStatement("SELECT title FROM book WHERE id = $1")
+                                        .bind(0, ThreadLocalRandom.current().nextInt(BenchmarkDatabase.ROWS))
+                                        .execute())
+                                .flatMap(result -> result.map(row -> row.get(0, String.class))),
+                        Connection::close)
+                .blockLast();
+    }
+
+    /**
+     * A connection held by a benchmark thread for the whole trial.
+     */
+    @State(Scope.Thread)
+    public static class ConnectionState {
+
+        private Connection connection;
+
+        @Setup
+        public void setup(StatementBenchmark benchmark) {
+            connection = Mono.from(benchmark.connectionPool.create()).block();
+        }
+
+        @TearDown
+        public void tearDown() {
+            Mono.from(connection.close()).block();
+        }
+    }
+}
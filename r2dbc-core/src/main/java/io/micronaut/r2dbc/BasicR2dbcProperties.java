@@ -18,6 +18,7 @@ package io.micronaut.r2dbc;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.naming.Named;
+import io.micronaut.r2dbc.config.InitializationMode;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 
 import jakarta.validation.constraints.NotBlank;
@@ -37,6 +38,12 @@ public interface BasicR2dbcProperties extends Named {
      */
     String PREFIX = "r2dbc.datasources";
 
+    /**
+     * The default maximum time to wait for a connection to a limited database host.
+     * @since 5.7.0
+     */
+    Duration DEFAULT_HOST_ACQUIRE_TIMEOUT = Duration.ofSeconds(30);
+
     /**
      * Sets the host.
      * @param host The host
@@ -112,4 +119,28 @@ public interface BasicR2dbcProperties extends Named {
      * @return Return the current builder
      */
     @NonNull ConnectionFactoryOptions.Builder builder();
+
+    /**
+     * @return When the connection factory is created
+     * @since 5.7.0
+     */
+    default @NonNull InitializationMode getInitialization() {
+        return InitializationMode.EAGER;
+    }
+
+    /**
+     * @return The maximum number of connections open to the database host across the datasources, if limited
+     * @since 5.7.0
+     */
+    default @Nullable Integer getHostMaxConnections() {
+        return null;
+    }
+
+    /**
+     * @return The maximum time to wait for a connection to the database host when the host connections are limited
+     * @since 5.7.0
+     */
+    default @NonNull Duration getHostAcquireTimeout() {
+        return DEFAULT_HOST_ACQUIRE_TIMEOUT;
+    }
 }
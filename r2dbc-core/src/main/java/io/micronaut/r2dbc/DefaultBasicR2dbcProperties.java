@@ -17,6 +17,7 @@ package io.micronaut.r2dbc;
 
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.context.annotation.ConfigurationProperties;
 import io.micronaut.context.annotation.EachProperty;
 import io.micronaut.context.annotation.Parameter;
 import io.micronaut.context.env.Environment;
@@ -24,6 +25,17 @@ import io.micronaut.core.convert.format.MapFormat;
 import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.core.type.Argument;
 import io.micronaut.core.util.CollectionUtils;
+import io.micronaut.r2dbc.config.InitializationMode;
+import io.micronaut.r2dbc.config.R2dbcAdaptivePoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcBatchingConfiguration;
+import io.micronaut.r2dbc.config.R2dbcFailoverConfiguration;
+import io.micronaut.r2dbc.config.R2dbcObservationConfiguration;
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcQueryCacheConfiguration;
+import io.micronaut.r2dbc.config.R2dbcReadReplicaConfiguration;
+import io.micronaut.r2dbc.config.R2dbcSlowQueryLogConfiguration;
+import io.micronaut.r2dbc.config.R2dbcStatementCacheConfiguration;
+import io.micronaut.r2dbc.config.R2dbcWarmupConfiguration;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import io.r2dbc.spi.Option;
 
@@ -41,6 +53,9 @@ import java.util.Map;
 public class DefaultBasicR2dbcProperties implements BasicR2dbcProperties {
     private final ConnectionFactoryOptions.Builder builder;
     private final String name;
+    private InitializationMode initialization = InitializationMode.EAGER;
+    private Integer hostMaxConnections;
+    private Duration hostAcquireTimeout = DEFAULT_HOST_ACQUIRE_TIMEOUT;
 
     /**
      * Default constructor.
@@ -228,4 +243,146 @@ public class DefaultBasicR2dbcProperties implements BasicR2dbcProperties {
         );
         return this;
     }
+
+    @Override
+    public @NonNull InitializationMode getInitialization() {
+        return initialization;
+    }
+
+    /**
+     * Sets when the connection factory is created. {@link InitializationMode#LAZY lazy} defers the creation of the
+     * driver connection factory and of the pool to the first connection acquisition, for a faster startup.
+     * Default value (eager).
+     *
+     * @param initialization The initialization mode
+     * @since 5.7.0
+     */
+    public void setInitialization(@Nullable InitializationMode initialization) {
+        this.initialization = initialization != null ? initialization : InitializationMode.EAGER;
+    }
+
+    @Override
+    public @Nullable Integer getHostMaxConnections() {
+        return hostMaxConnections;
+    }
+
+    /**
+     * Sets the maximum number of connections open to the database host and port, shared by all the datasources of
+     * the same host. Further connections wait for one to be closed, in the order they were requested. When
+     * datasources of the same host configure different values the smallest applies, and adaptive pools with a
+     * {@code host-max-size} share the same limit. Unlimited if not set.
+     *
+     * @param hostMaxConnections The maximum number of connections open to the host
+     * @since 5.7.0
+     */
+    public void setHostMaxConnections(@Nullable @Positive Integer hostMaxConnections) {
+        this.hostMaxConnections = hostMaxConnections;
+    }
+
+    @Override
+    public @NonNull Duration getHostAcquireTimeout() {
+        return hostAcquireTimeout;
+    }
+
+    /**
+     * Sets the maximum time to wait for a connection to the database host when {@code host-max-connections} is set,
+     * after which opening the connection fails with a timeout. While waiting, idle pooled connections of the other
+     * datasources of the host are closed to make room. Default value (30 seconds).
+     *
+     * @param hostAcquireTimeout The maximum time to wait for a connection to the host
+     * @since 5.7.0
+     */
+    public void setHostAcquireTimeout(@Nullable Duration hostAcquireTimeout) {
+        this.hostAcquireTimeout = hostAcquireTimeout != null ? hostAcquireTimeout : DEFAULT_HOST_ACQUIRE_TIMEOUT;
+    }
+
+    /**
+     * The connection pool configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcPoolConfiguration.PREFIX)
+    public static class DefaultR2dbcPoolConfiguration extends R2dbcPoolConfiguration {
+    }
+
+    /**
+     * The startup warm-up configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcWarmupConfiguration.PREFIX)
+    public static class DefaultR2dbcWarmupConfiguration extends R2dbcWarmupConfiguration {
+    }
+
+    /**
+     * The read replica configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcReadReplicaConfiguration.PREFIX)
+    public static class DefaultR2dbcReadReplicaConfiguration extends R2dbcReadReplicaConfiguration {
+    }
+
+    /**
+     * The multi-host failover configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcFailoverConfiguration.PREFIX)
+    public static class DefaultR2dbcFailoverConfiguration extends R2dbcFailoverConfiguration {
+    }
+
+    /**
+     * The prepared statement cache configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcStatementCacheConfiguration.PREFIX)
+    public static class DefaultR2dbcStatementCacheConfiguration extends R2dbcStatementCacheConfiguration {
+    }
+
+    /**
+     * The adaptive sizing configuration of the pool of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcAdaptivePoolConfiguration.PREFIX)
+    public static class DefaultR2dbcAdaptivePoolConfiguration extends R2dbcAdaptivePoolConfiguration {
+    }
+
+    /**
+     * The statement batching configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcBatchingConfiguration.PREFIX)
+    public static class DefaultR2dbcBatchingConfiguration extends R2dbcBatchingConfiguration {
+    }
+
+    /**
+     * The observation configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcObservationConfiguration.PREFIX)
+    public static class DefaultR2dbcObservationConfiguration extends R2dbcObservationConfiguration {
+    }
+
+    /**
+     * The slow query log configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcSlowQueryLogConfiguration.PREFIX)
+    public static class DefaultR2dbcSlowQueryLogConfiguration extends R2dbcSlowQueryLogConfiguration {
+    }
+
+    /**
+     * The query result cache configuration of the datasource.
+     *
+     * @since 5.7.0
+     */
+    @ConfigurationProperties(R2dbcQueryCacheConfiguration.PREFIX)
+    public static class DefaultR2dbcQueryCacheConfiguration extends R2dbcQueryCacheConfiguration {
+    }
 }
@@ -18,9 +18,38 @@ package io.micronaut.r2dbc;
 import io.micronaut.context.annotation.Context;
 import io.micronaut.context.annotation.EachBean;
 import io.micronaut.context.annotation.Factory;
-import io.r2dbc.spi.ConnectionFactories;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.r2dbc.config.InitializationMode;
+import io.micronaut.r2dbc.config.R2dbcAdaptivePoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcFailoverConfiguration;
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcStatementCacheConfiguration;
+import io.micronaut.r2dbc.pool.HostConcurrencyLimit;
+import io.micronaut.r2dbc.pool.HostLimitedConnectionFactory;
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.micronaut.r2dbc.routing.FailoverConnectionFactory;
+import io.micronaut.r2dbc.statement.StatementCacheConnectionFactory;
+import io.micronaut.r2dbc.support.ConnectionFactoryProviders;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.LazyConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
 import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Core factory bean that exposes the following beans.
@@ -28,7 +57,7 @@ import io.r2dbc.spi.ConnectionFactoryOptions;
  * <ul>
  *     <li>The {@link ConnectionFactoryOptions.Builder}</li>
  *     <li>The {@link ConnectionFactoryOptions}</li>
- *     <li>The {@link ConnectionFactory}</li>
+ *     <li>The {@link ConnectionFactory}, wrapped in a {@link ConnectionPool} unless pooling is disabled</li>
  * </ul>
  *
  * @author graemerocher
@@ -37,6 +66,11 @@ import io.r2dbc.spi.ConnectionFactoryOptions;
 @Factory
 public class R2dbcConnectionFactoryBean {
 
+    private static final Logger LOG = LoggerFactory.getLogger(R2dbcConnectionFactoryBean.class);
+
+    private final List<Disposable> disposables = new CopyOnWriteArrayList<>();
+    private final Map<String, HostConcurrencyLimit> hostLimits = new ConcurrentHashMap<>();
+
     /**
      * Method that exposes the {@link io.r2dbc.spi.ConnectionFactoryOptions.Builder}.
      * @param basicR2dbcProperties The basic properties
@@ -58,13 +92,245 @@ public class R2dbcConnectionFactoryBean {
     }
 
     /**
-     * Method that exposes the {@link ConnectionFactory}.
+     * Method that exposes the {@link ConnectionFactory}. With {@link InitializationMode#LAZY lazy} initialization, the
+     * connection factory is a {@link LazyConnectionFactory} that creates it on the first connection acquisition.
+     * @param name The name of the datasource
      * @param options the options
+     * @param properties The properties of the datasource
+     * @param poolConfiguration The pool configuration
+     * @param adaptivePoolConfiguration The adaptive pool configuration
+     * @param failoverConfiguration The failover configuration
+     * @param statementCacheConfiguration The statement cache configuration
      * @return The connection factory
+     * @since 5.7.0
      */
     @EachBean(ConnectionFactoryOptions.class)
     @Context
+    protected ConnectionFactory connectionFactory(@Parameter String name,
+                                                  ConnectionFactoryOptions options,
+                                                  @Parameter @Nullable BasicR2dbcProperties properties,
+                                                  @Parameter @Nullable R2dbcPoolConfiguration poolConfiguration,
+                                                  @Parameter @Nullable R2dbcAdaptivePoolConfiguration adaptivePoolConfiguration,
+                                                  @Parameter @Nullable R2dbcFailoverConfiguration failoverConfiguration,
+                                                  @Parameter @Nullable R2dbcStatementCacheConfiguration statementCacheConfiguration) {
+        if (properties != null && properties.getInitialization() == InitializationMode.LAZY) {
+            LazyConnectionFactory connectionFactory = new LazyConnectionFactory(name, lazyMetadata(options), () ->
+                    createConnectionFactory(name, options, properties, poolConfiguration, adaptivePoolConfiguration, failoverConfiguration, statementCacheConfiguration));
+            disposables.add(connectionFactory);
+            return connectionFactory;
+        }
+        long start = System.nanoTime();
+        ConnectionFactory connectionFactory = createConnectionFactory(name, options, properties, poolConfiguration, adaptivePoolConfiguration, failoverConfiguration, statementCacheConfiguration);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Created R2DBC datasource [{}] in {}ms", name, (System.nanoTime() - start) / 1_000_000);
+        }
+        return connectionFactory;
+    }
+
+    private ConnectionFactory createConnectionFactory(String name,
+                                                      ConnectionFactoryOptions options,
+                                                      @Nullable BasicR2dbcProperties properties,
+                                                      @Nullable R2dbcPoolConfiguration poolConfiguration,
+                                                      @Nullable R2dbcAdaptivePoolConfiguration adaptivePoolConfiguration,
+                                                      @Nullable R2dbcFailoverConfiguration failoverConfiguration,
+                                                      @Nullable R2dbcStatementCacheConfiguration statementCacheConfiguration) {
+        boolean statementCache = statementCacheConfiguration != null && statementCacheConfiguration.isEnabled();
+        if (statementCache) {
+            options = statementCacheOptions(options, statementCacheConfiguration);
+        }
+        R2dbcPoolConfiguration pool = poolConfiguration != null ? poolConfiguration : new R2dbcPoolConfiguration();
+        Integer hostMaxConnections = properties != null ? properties.getHostMaxConnections() : null;
+        Duration hostAcquireTimeout = properties != null ? properties.getHostAcquireTimeout() : BasicR2dbcProperties.DEFAULT_HOST_ACQUIRE_TIMEOUT;
+        if (hostMaxConnections != null && pool.isEnabled() && adaptivePoolConfiguration != null
+                && adaptivePoolConfiguration.isEnabled() && adaptivePoolConfiguration.getHostMaxSize() != null) {
+            // the adaptive pool claims its connections from the host limit, a permit per connection would count them twice
+            hostLimit(address(options), hostMaxConnections);
+            hostMaxConnections = null;
+        }
+        ConnectionFactory connectionFactory;
+        Disposable failover = null;
+        if (failoverConfiguration != null && !failoverConfiguration.getHosts().isEmpty()) {
+            failover = failoverConnectionFactory(options, failoverConfiguration, hostMaxConnections, hostAcquireTimeout);
+            connectionFactory = (ConnectionFactory) failover;
+            disposables.add(failover);
+        } else {
+            connectionFactory = hostLimitedConnectionFactory(options, hostMaxConnections, hostAcquireTimeout);
+        }
+        // an r2dbc:pool: URL is already pooled by R2DBC Pool
+        Optional<ConnectionPool> existingPool = DelegatingConnectionFactory.find(connectionFactory, ConnectionPool.class);
+        if (statementCache) {
+            // the statistics are kept per physical connection, below the pool, and only for a cache the driver has
+            if (existingPool.isPresent()) {
+                LOG.info("R2DBC datasource [{}] is pooled by its URL, its statement cache statistics are not tracked", name);
+            } else if (statementCacheOption(driver(options)) == null) {
+                LOG.debug("The driver of R2DBC datasource [{}] has no statement cache option, its statement cache statistics are not tracked", name);
+            } else {
+                connectionFactory = new StatementCacheConnectionFactory(connectionFactory, statementCacheConfiguration.getSize());
+            }
+        }
+        if (pool.isEnabled() && existingPool.isEmpty()) {
+            connectionFactory = connectionPool(name, connectionFactory, pool, adaptivePoolConfiguration, options);
+        }
+        if (connectionFactory instanceof Disposable disposable) {
+            // the failover connection factory is not pooled when pooling is disabled, and already registered
+            if (disposable != failover) {
+                disposables.add(disposable);
+            }
+        } else {
+            existingPool.ifPresent(disposables::add);
+        }
+        return connectionFactory;
+    }
+
+    private static ConnectionFactoryMetadata lazyMetadata(ConnectionFactoryOptions options) {
+        String driverName = String.valueOf(driver(options));
+        return () -> driverName;
+    }
+
+    /**
+     * The driver of the options, beneath R2DBC Pool for an {@code r2dbc:pool:} URL.
+     */
+    private static @Nullable Object driver(ConnectionFactoryOptions options) {
+        Object driver = options.getValue(ConnectionFactoryOptions.DRIVER);
+        if ("pool".equals(driver)) {
+            driver = options.getValue(ConnectionFactoryOptions.PROTOCOL);
+        }
+        return driver;
+    }
+
+    /**
+     * The native option of the statement cache size of a driver, if it has one.
+     */
+    private static @Nullable String statementCacheOption(@Nullable Object driver) {
+        if (driver == null) {
+            return null;
+        }
+        return switch (driver.toString()) {
+            case "postgresql", "postgres" -> "preparedStatementCacheQueries";
+            case "mariadb", "mysql" -> "prepareCacheSize";
+            case "oracle" -> "oracle.jdbc.implicitStatementCacheSize";
+            default -> null;
+        };
+    }
+
+    /**
+     * Creates the driver {@link ConnectionFactory} for the given options, with the provider of the driver resolved by
+     * its name rather than by asking every provider of the classpath.
+     * @param options the options
+     * @return The connection factory
+     */
     protected ConnectionFactory connectionFactory(ConnectionFactoryOptions options) {
-        return ConnectionFactories.get(options);
+        return ConnectionFactoryProviders.create(options);
+    }
+
+    /**
+     * Applies the statement cache size to the native option of the driver, unless the option is set explicitly.
+     * @param options the options
+     * @param configuration The statement cache configuration
+     * @return The options of the driver
+     * @since 5.7.0
+     */
+    protected ConnectionFactoryOptions statementCacheOptions(ConnectionFactoryOptions options, R2dbcStatementCacheConfiguration configuration) {
+        Object driver = driver(options);
+        String option = statementCacheOption(driver);
+        if (option == null || options.hasOption(Option.valueOf(option))) {
+            return options;
+        }
+        // the Oracle driver reads its option as a string
+        Object size = "oracle".equals(driver) ? String.valueOf(configuration.getSize()) : configuration.getSize();
+        return options.mutate().option(Option.valueOf(option), size).build();
+    }
+
+    /**
+     * Creates a {@link FailoverConnectionFactory} over driver connection factories of the configured hosts.
+     * @param options the options
+     * @param configuration The failover configuration
+     * @param hostMaxConnections The maximum number of connections open to each host, if limited
+     * @param hostAcquireTimeout The maximum time to wait for a connection to a limited host
+     * @return The failover connection factory
+     * @since 5.7.0
+     */
+    protected FailoverConnectionFactory failoverConnectionFactory(ConnectionFactoryOptions options,
+                                                                  R2dbcFailoverConfiguration configuration,
+                                                                  @Nullable Integer hostMaxConnections,
+                                                                  @Nullable Duration hostAcquireTimeout) {
+        Map<String, ConnectionFactory> endpoints = new LinkedHashMap<>();
+        for (String address : configuration.getHosts()) {
+            ConnectionFactoryOptions.Builder builder = options.mutate();
+            int separator = address.lastIndexOf(':');
+            if (separator > 0 && address.indexOf(':') == separator) {
+                builder.option(ConnectionFactoryOptions.HOST, address.substring(0, separator))
+                        .option(ConnectionFactoryOptions.PORT, Integer.parseInt(address.substring(separator + 1)));
+            } else {
+                builder.option(ConnectionFactoryOptions.HOST, address);
+            }
+            endpoints.put(address, hostLimitedConnectionFactory(builder.build(), hostMaxConnections, hostAcquireTimeout));
+        }
+        return new FailoverConnectionFactory(endpoints, configuration);
+    }
+
+    /**
+     * Wraps the driver {@link ConnectionFactory} in a {@link ConnectionPool}. Adaptive pools of the same database host
+     * and port share a {@link HostConcurrencyLimit} if one of them configures a host max size.
+     * @param name The name of the datasource
+     * @param connectionFactory The driver connection factory
+     * @param configuration The pool configuration
+     * @param adaptiveConfiguration The adaptive pool configuration
+     * @param options the options
+     * @return The connection pool
+     * @since 5.7.0
+     */
+    protected ConnectionPool connectionPool(String name,
+                                            ConnectionFactory connectionFactory,
+                                            R2dbcPoolConfiguration configuration,
+                                            @Nullable R2dbcAdaptivePoolConfiguration adaptiveConfiguration,
+                                            ConnectionFactoryOptions options) {
+        HostConcurrencyLimit hostLimit = null;
+        if (adaptiveConfiguration != null && adaptiveConfiguration.isEnabled() && adaptiveConfiguration.getHostMaxSize() != null) {
+            hostLimit = hostLimit(address(options), adaptiveConfiguration.getHostMaxSize());
+        }
+        return R2dbcConnectionPool.create(name, connectionFactory, configuration, adaptiveConfiguration, hostLimit);
+    }
+
+    /**
+     * Creates the driver {@link ConnectionFactory} for the given options, opening connections within the permits of
+     * the {@link HostConcurrencyLimit} shared by the datasources of the same host and port if a maximum is set.
+     * @param options the options
+     * @param hostMaxConnections The maximum number of connections open to the host, if limited
+     * @param hostAcquireTimeout The maximum time to wait for a connection to the host
+     * @return The connection factory
+     * @since 5.7.0
+     */
+    protected ConnectionFactory hostLimitedConnectionFactory(ConnectionFactoryOptions options,
+                                                             @Nullable Integer hostMaxConnections,
+                                                             @Nullable Duration hostAcquireTimeout) {
+        ConnectionFactory connectionFactory = connectionFactory(options);
+        if (hostMaxConnections == null || connectionFactory instanceof ConnectionPool) {
+            return connectionFactory;
+        }
+        return new HostLimitedConnectionFactory(connectionFactory, hostLimit(address(options), hostMaxConnections), hostAcquireTimeout);
+    }
+
+    private HostConcurrencyLimit hostLimit(String address, int maxSize) {
+        HostConcurrencyLimit hostLimit = hostLimits.computeIfAbsent(address, key -> new HostConcurrencyLimit(key, maxSize));
+        hostLimit.restrict(maxSize);
+        return hostLimit;
+    }
+
+    private static String address(ConnectionFactoryOptions options) {
+        Object host = options.getValue(ConnectionFactoryOptions.HOST);
+        Object port = options.getValue(ConnectionFactoryOptions.PORT);
+        return port != null ? host + ":" + port : String.valueOf(host);
+    }
+
+    /**
+     * Disposes the connection pools created by this factory, in the reverse order of their creation.
+     */
+    @PreDestroy
+    void close() {
+        for (int i = disposables.size() - 1; i >= 0; i--) {
+            disposables.get(i).dispose();
+        }
+        disposables.clear();
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.blocking;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.ValidationDepth;
+import reactor.core.publisher.Mono;
+
+/**
+ * A blocking facade over an R2DBC {@link Connection}.
+ *
+ * @see BlockingConnectionFactory
+ * @since 5.7.0
+ */
+public final class BlockingConnection implements AutoCloseable {
+
+    private final Connection connection;
+
+    BlockingConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Creates a statement.
+     *
+     * @param sql The SQL of the statement
+     * @return The statement
+     */
+    public @NonNull BlockingStatement createStatement(@NonNull String sql) {
+        return new BlockingStatement(connection.createStatement(sql));
+    }
+
+    /**
+     * Begins a transaction.
+     */
+    public void beginTransaction() {
+        Mono.from(connection.beginTransaction()).block();
+    }
+
+    /**
+     * Commits the current transaction.
+     */
+    public void commitTransaction() {
+        Mono.from(connection.commitTransaction()).block();
+    }
+
+    /**
+     * Rolls back the current transaction.
+     */
+    public void rollbackTransaction() {
+        Mono.from(connection.rollbackTransaction()).block();
+    }
+
+    /**
+     * @return Whether the connection is in auto-commit mode
+     */
+    public boolean isAutoCommit() {
+        return connection.isAutoCommit();
+    }
+
+    /**
+     * @param autoCommit Whether the connection is in auto-commit mode
+     */
+    public void setAutoCommit(boolean autoCommit) {
+        Mono.from(connection.setAutoCommit(autoCommit)).block();
+    }
+
+    /**
+     * @param isolationLevel The isolation level of the transactions
+     */
+    public void setTransactionIsolationLevel(@NonNull IsolationLevel isolationLevel) {
+        Mono.from(connection.setTransactionIsolationLevel(isolationLevel)).block();
+    }
+
+    /**
+     * @param depth The depth of the validation
+     * @return Whether the connection is valid
+     */
+    public boolean validate(@NonNull ValidationDepth depth) {
+        return Boolean.TRUE.equals(Mono.from(connection.validate(depth)).block());
+    }
+
+    /**
+     * @return The connection
+     */
+    public @NonNull Connection unwrap() {
+        return connection;
+    }
+
+    /**
+     * Closes the connection, releasing it to its pool if pooled.
+     */
+    @Override
+    public void close() {
+        Mono.from(connection.close()).block();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.blocking;
+
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * A blocking facade over an R2DBC {@link ConnectionFactory}, for imperative code running on virtual threads. Each
+ * call blocks the calling thread until the driver completes, without pinning the virtual thread to its carrier, so
+ * the imperative code keeps the scalability of the non-blocking driver. A bean is available for each
+ * {@link ConnectionFactory}, with the same name.
+ *
+ * <pre>{@code
+ * try (BlockingConnection connection = blockingConnectionFactory.getConnection();
+ *      Stream<String> names = connection.createStatement("SELECT name FROM book")
+ *          .query((row, metadata) -> row.get("name", String.class))) {
+ *     names.forEach(System.out::println);
+ * }
+ * }</pre>
+ *
+ * <p>The methods must not be invoked from a Reactor non-blocking thread, such as an event loop.</p>
+ *
+ * @since 5.7.0
+ */
+@EachBean(ConnectionFactory.class)
+public class BlockingConnectionFactory {
+
+    private final ConnectionFactory connectionFactory;
+
+    /**
+     * @param connectionFactory The connection factory
+     */
+    public BlockingConnectionFactory(@Parameter ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Acquires a connection, to be closed by the caller.
+     *
+     * @return The connection
+     */
+    public @NonNull BlockingConnection getConnection() {
+        Connection connection = Mono.from(connectionFactory.create()).block();
+        if (connection == null) {
+            throw new IllegalStateException("Connection factory " + connectionFactory + " completed without a connection");
+        }
+        return new BlockingConnection(connection);
+    }
+
+    /**
+     * Acquires a connection for the duration of the callback.
+     *
+     * @param callback The callback
+     * @param <T> The type of the result
+     * @return The result of the callback
+     */
+    public <T> T withConnection(@NonNull Function<BlockingConnection, T> callback) {
+        try (BlockingConnection connection = getConnection()) {
+            return callback.apply(connection);
+        }
+    }
+
+    /**
+     * @return The connection factory
+     */
+    public @NonNull ConnectionFactory unwrap() {
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.blocking;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * A blocking facade over an R2DBC {@link Statement}. Rows are streamed: at most the prefetch of mapped rows are
+ * requested from the driver ahead of their consumption, so large results are never collected in memory.
+ *
+ * @see BlockingConnectionFactory
+ * @since 5.7.0
+ */
+public final class BlockingStatement {
+
+    /**
+     * The default number of rows requested ahead of their consumption.
+     */
+    public static final int DEFAULT_PREFETCH = 256;
+
+    private final Statement statement;
+
+    BlockingStatement(Statement statement) {
+        this.statement = statement;
+    }
+
+    /**
+     * @param index The index of the parameter
+     * @param value The value
+     * @return This statement
+     */
+    public @NonNull BlockingStatement bind(int index, @NonNull Object value) {
+        statement.bind(index, value);
+        return this;
+    }
+
+    /**
+     * @param name The name of the parameter
+     * @param value The value
+     * @return This statement
+     */
+    public @NonNull BlockingStatement bind(@NonNull String name, @NonNull Object value) {
+        statement.bind(name, value);
+        return this;
+    }
+
+    /**
+     * @param index The index of the parameter
+     * @param type The type of the value
+     * @return This statement
+     */
+    public @NonNull BlockingStatement bindNull(int index, @NonNull Class<?> type) {
+        statement.bindNull(index, type);
+        return this;
+    }
+
+    /**
+     * @param name The name of the parameter
+     * @param type The type of the value
+     * @return This statement
+     */
+    public @NonNull BlockingStatement bindNull(@NonNull String name, @NonNull Class<?> type) {
+        statement.bindNull(name, type);
+        return this;
+    }
+
+    /**
+     * Saves the current bindings and starts a new set of bindings, executed together as a batch.
+     *
+     * @return This statement
+     */
+    public @NonNull BlockingStatement add() {
+        statement.add();
+        return this;
+    }
+
+    /**
+     * @param rows The number of rows fetched at once from the database, a hint for the driver
+     * @return This statement
+     */
+    public @NonNull BlockingStatement fetchSize(int rows) {
+        statement.fetchSize(rows);
+        return this;
+    }
+
+    /**
+     * Executes the statement.
+     *
+     * @return The number of rows updated
+     */
+    public long execute() {
+        Long rows = Flux.from(statement.execute())
+                .concatMap(Result::getRowsUpdated)
+                .reduce(0L, Long::sum)
+                .block();
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Executes the statement and streams its rows, mapped on the thread of the driver. The stream must be closed,
+     * which cancels the query if the rows were not all consumed.
+     *
+     * @param mapper The row mapper
+     * @param <T> The type of the mapped rows
+     * @return The stream of the mapped rows
+     */
+    public <T> Stream<T> query(@NonNull BiFunction<Row, RowMetadata, ? extends T> mapper) {
+        return query(mapper, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Executes the statement and streams its rows, mapped on the thread of the driver. The stream must be closed,
+     * which cancels the query if the rows were not all consumed.
+     *
+     * @param mapper The row mapper
+     * @param prefetch The number of rows requested ahead of their consumption
+     * @param <T> The type of the mapped rows
+     * @return The stream of the mapped rows
+     */
+    public <T> Stream<T> query(@NonNull BiFunction<Row, RowMetadata, ? extends T> mapper, int prefetch) {
+        return Flux.from(statement.execute())
+                .concatMap(result -> Flux.<T>from(result.map(mapper)))
+                .toStream(prefetch);
+    }
+
+    /**
+     * @return The statement
+     */
+    public @NonNull Statement unwrap() {
+        return statement;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+/**
+ * When the connection factory of a datasource is created, bound from {@code r2dbc.datasources.<name>.initialization}.
+ *
+ * @see io.micronaut.r2dbc.support.LazyConnectionFactory
+ * @since 5.7.0
+ */
+public enum InitializationMode {
+
+    /**
+     * The connection factory is created while the application context starts.
+     */
+    EAGER,
+
+    /**
+     * The connection factory is created by the first connection acquisition, for a faster startup.
+     */
+    LAZY
+}
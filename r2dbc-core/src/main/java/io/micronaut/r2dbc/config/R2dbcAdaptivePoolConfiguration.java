@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Adaptive sizing configuration of the connection pool of an R2DBC datasource, bound from
+ * {@code r2dbc.datasources.<name>.pool.adaptive}.
+ *
+ * @see io.micronaut.r2dbc.pool.R2dbcConnectionPool
+ * @since 5.7.0
+ */
+public class R2dbcAdaptivePoolConfiguration {
+
+    /**
+     * The prefix of the adaptive pool configuration, relative to the datasource.
+     */
+    public static final String PREFIX = R2dbcPoolConfiguration.PREFIX + ".adaptive";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default minimum size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MIN_SIZE = 1;
+
+    /**
+     * The default latency tolerance.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_TOLERANCE = 2.0;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int minSize = DEFAULT_MIN_SIZE;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private Integer hostMaxSize;
+
+    /**
+     * @return Whether the number of connections in use is adapted to the observed latency
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the number of connections in use is adapted, between the minimum size and the max size of the
+     * pool, to the latency observed while the connections are held. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if adaptive sizing is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The minimum number of connections in use
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Sets the minimum number of connections in use, whatever the latency. Default value ({@value #DEFAULT_MIN_SIZE}).
+     *
+     * @param minSize The minimum size
+     */
+    public void setMinSize(@Positive int minSize) {
+        this.minSize = minSize;
+    }
+
+    /**
+     * @return The tolerated ratio between the latency of an execution and the average latency
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Sets the tolerated ratio between the latency of an execution and the long-term average latency. The limit
+     * shrinks when executions get slower than that, as the database is then queueing. Default value
+     * ({@value #DEFAULT_TOLERANCE}).
+     *
+     * @param tolerance The latency tolerance
+     */
+    public void setTolerance(@DecimalMin("1.0") double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @return The maximum number of connections in use across the datasources of the same database host
+     */
+    public @Nullable Integer getHostMaxSize() {
+        return hostMaxSize;
+    }
+
+    /**
+     * Sets the maximum number of connections in use across the adaptive datasources of the same database host and
+     * port. When datasources of the same host configure different values the smallest applies. Each datasource
+     * keeps at least its minimum size. Unlimited if not set.
+     *
+     * @param hostMaxSize The maximum size of the host
+     */
+    public void setHostMaxSize(@Nullable @Positive Integer hostMaxSize) {
+        this.hostMaxSize = hostMaxSize;
+    }
+}
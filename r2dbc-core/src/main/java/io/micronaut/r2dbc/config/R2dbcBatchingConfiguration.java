@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+
+/**
+ * Statement batching configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.batching}.
+ *
+ * @see io.micronaut.r2dbc.statement.BatchingConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcBatchingConfiguration {
+
+    /**
+     * The prefix of the batching configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "batching";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default maximum batch size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    /**
+     * The default maximum delay.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofMillis(1);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private Duration maxDelay = DEFAULT_MAX_DELAY;
+
+    /**
+     * @return Whether concurrent inserts are batched
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether identical {@code INSERT} statements executed concurrently on auto-commit connections are executed
+     * together as a single batch. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if batching is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The maximum number of statements of a batch
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of statements of a batch, a batch is executed as soon as it is full. Default value
+     * ({@value #DEFAULT_MAX_SIZE}).
+     *
+     * @param maxSize The maximum size
+     */
+    public void setMaxSize(@Positive int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return The maximum time a statement waits for other statements to batch with
+     */
+    public @NonNull Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets the maximum time a statement waits for other statements to batch with. Default value (1 millisecond).
+     *
+     * @param maxDelay The maximum delay
+     */
+    public void setMaxDelay(@Nullable Duration maxDelay) {
+        this.maxDelay = maxDelay != null ? maxDelay : DEFAULT_MAX_DELAY;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-host failover configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.failover}.
+ *
+ * @see io.micronaut.r2dbc.routing.FailoverConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcFailoverConfiguration {
+
+    /**
+     * The prefix of the failover configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "failover";
+
+    /**
+     * The default failure threshold.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_FAILURE_THRESHOLD = 1;
+
+    /**
+     * The default open duration.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * The default probe interval.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_PROBE_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * The default probe timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private List<String> hosts = Collections.emptyList();
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+    private Duration probeInterval = DEFAULT_PROBE_INTERVAL;
+    private Duration probeTimeout = DEFAULT_PROBE_TIMEOUT;
+
+    /**
+     * @return The ordered endpoints of the datasource
+     */
+    public @NonNull List<String> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Sets the ordered endpoints of the datasource, as {@code host} or {@code host:port}. When set, they replace the
+     * host and port of the datasource and connections are opened on the first available endpoint.
+     *
+     * @param hosts The endpoints
+     */
+    public void setHosts(@Nullable List<String> hosts) {
+        this.hosts = hosts != null ? hosts : Collections.emptyList();
+    }
+
+    /**
+     * @return The number of consecutive failures after which an endpoint is skipped
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Sets the number of consecutive connection failures after which an endpoint is skipped. Default value
+     * ({@value #DEFAULT_FAILURE_THRESHOLD}).
+     *
+     * @param failureThreshold The failure threshold
+     */
+    public void setFailureThreshold(@Positive int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * @return The time a failed endpoint is skipped
+     */
+    public @NonNull Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Sets the time a failed endpoint is skipped before a connection is attempted again. Default value (30 seconds).
+     *
+     * @param openDuration The open duration
+     */
+    public void setOpenDuration(@Nullable Duration openDuration) {
+        this.openDuration = openDuration != null ? openDuration : DEFAULT_OPEN_DURATION;
+    }
+
+    /**
+     * @return The interval of the background probes of failed endpoints
+     */
+    public @Nullable Duration getProbeInterval() {
+        return probeInterval;
+    }
+
+    /**
+     * Sets the interval at which failed endpoints are probed in the background, so they are used again as soon as
+     * they recover. Default value (5 seconds). Set to 0 to disable.
+     *
+     * @param probeInterval The probe interval
+     */
+    public void setProbeInterval(@Nullable Duration probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
+    /**
+     * @return The maximum time a background probe of a failed endpoint may take
+     */
+    public @NonNull Duration getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    /**
+     * Sets the maximum time a background probe may take to open and validate a connection on a failed endpoint,
+     * after which the probe counts as a failure. Default value (5 seconds).
+     *
+     * @param probeTimeout The probe timeout
+     */
+    public void setProbeTimeout(@Nullable Duration probeTimeout) {
+        this.probeTimeout = probeTimeout != null ? probeTimeout : DEFAULT_PROBE_TIMEOUT;
+    }
+}
@@ -16,11 +16,13 @@
 package io.micronaut.r2dbc.config;
 
 import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.format.MapFormat;
 import io.micronaut.core.naming.conventions.StringConvention;
 import io.micronaut.core.util.CollectionUtils;
 import io.micronaut.management.endpoint.health.HealthEndpoint;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -35,7 +37,18 @@ import java.util.Optional;
 @ConfigurationProperties(HealthEndpoint.PREFIX + ".r2dbc")
 public class R2dbcHealthConfiguration {
 
+    /**
+     * The default max age of the pool state.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_POOL_STATE_MAX_AGE = Duration.ofSeconds(30);
+
     private boolean enabled = true;
+    private Duration cacheTtl;
+    private Duration timeout;
+    private Duration degradedThreshold;
+    private boolean poolStateEnabled;
+    private Duration poolStateMaxAge = DEFAULT_POOL_STATE_MAX_AGE;
 
     /**
      * {@link io.r2dbc.spi.ConnectionFactoryMetadata#getName()} to SQL query for database version.
@@ -65,6 +78,88 @@ public class R2dbcHealthConfiguration {
         this.enabled = enabled;
     }
 
+    /**
+     * @return the time a health result is cached, or null if every probe runs a check
+     * @since 5.7.0
+     */
+    public @Nullable Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * @param cacheTtl the time a health result is cached. Concurrent probes share the same in-flight check.
+     *                 If not set every probe runs a check.
+     */
+    void setCacheTtl(@Nullable Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * @return the maximum duration of a health check, or null if unlimited
+     * @since 5.7.0
+     */
+    public @Nullable Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param timeout the maximum duration of a health check, including the connection acquisition. A check that does
+     *                not complete in time reports DOWN. If not set the check is unlimited.
+     */
+    void setTimeout(@Nullable Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the round-trip latency above which health is reported as DEGRADED, or null if disabled
+     * @since 5.7.0
+     */
+    public @Nullable Duration getDegradedThreshold() {
+        return degradedThreshold;
+    }
+
+    /**
+     * @param degradedThreshold the round-trip latency of the health check above which health is reported as DEGRADED
+     *                          instead of UP. If not set health is never reported as DEGRADED.
+     */
+    void setDegradedThreshold(@Nullable Duration degradedThreshold) {
+        this.degradedThreshold = degradedThreshold;
+    }
+
+    /**
+     * @return true if pooled connection factories report health from the pool state
+     * @since 5.7.0
+     */
+    public boolean isPoolStateEnabled() {
+        return poolStateEnabled;
+    }
+
+    /**
+     * @param poolStateEnabled whether pooled connection factories report health from the pool state, without running
+     *                         the health query while a connection was successfully acquired and validated recently.
+     *                         Only applies to the datasources pooled by this module, not to {@code r2dbc:pool:} URLs
+     *                         whose pool does not report its acquisitions, which always run the health query
+     */
+    void setPoolStateEnabled(boolean poolStateEnabled) {
+        this.poolStateEnabled = poolStateEnabled;
+    }
+
+    /**
+     * @return the max age of the last successful acquisition for the pool state to be reported
+     * @since 5.7.0
+     */
+    public Duration getPoolStateMaxAge() {
+        return poolStateMaxAge;
+    }
+
+    /**
+     * @param poolStateMaxAge the max age of the last successful acquisition for the pool state to be reported,
+     *                        otherwise the health query is run. Default value (30 seconds).
+     */
+    void setPoolStateMaxAge(@Nullable Duration poolStateMaxAge) {
+        this.poolStateMaxAge = poolStateMaxAge != null ? poolStateMaxAge : DEFAULT_POOL_STATE_MAX_AGE;
+    }
+
     /**
      * @param databaseNameToHealthQuery map with Key for {@link io.r2dbc.spi.ConnectionFactoryMetadata#getName()}
      *                                  and value for health query to be executed against such R2DBC connection factory
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+/**
+ * Observation configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.observation}.
+ *
+ * @see io.micronaut.r2dbc.observation.ObservationConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcObservationConfiguration {
+
+    /**
+     * The prefix of the observation configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "observation";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default sanitize SQL value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_SANITIZE_SQL = true;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private boolean sanitizeSql = DEFAULT_SANITIZE_SQL;
+
+    /**
+     * @return Whether connections, statements and results are observed
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether connection acquisitions, statement executions and result consumptions are observed with the
+     * Micrometer Observation API. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if observations are enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Whether the literals of the SQL are replaced in the observations
+     */
+    public boolean isSanitizeSql() {
+        return sanitizeSql;
+    }
+
+    /**
+     * Sets whether the string and numeric literals of the SQL recorded in the observations are replaced with
+     * {@code ?}. Default value ({@value #DEFAULT_SANITIZE_SQL}).
+     *
+     * @param sanitizeSql True to sanitize the SQL
+     */
+    public void setSanitizeSql(boolean sanitizeSql) {
+        this.sanitizeSql = sanitizeSql;
+    }
+}
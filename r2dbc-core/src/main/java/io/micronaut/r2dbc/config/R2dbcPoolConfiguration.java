@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.r2dbc.spi.ValidationDepth;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+
+/**
+ * Connection pool configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.pool}.
+ *
+ * @since 5.7.0
+ */
+public class R2dbcPoolConfiguration {
+
+    /**
+     * The prefix of the pool configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "pool";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = true;
+
+    /**
+     * The default initial size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_INITIAL_SIZE = 10;
+
+    /**
+     * The default max size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_SIZE = 10;
+
+    /**
+     * The default max idle time.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_MAX_IDLE_TIME = Duration.ofMinutes(30);
+
+    /**
+     * The default fraction of acquisitions whose stack trace is captured for leak detection.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_LEAK_DETECTION_SAMPLE_RATE = 0.01;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int initialSize = DEFAULT_INITIAL_SIZE;
+    private int minIdle;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private Duration maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+    private Duration maxLifeTime;
+    private Duration maxAcquireTime;
+    private Duration maxCreateConnectionTime;
+    private Duration backgroundEvictionInterval;
+    private String validationQuery;
+    private ValidationDepth validationDepth = ValidationDepth.LOCAL;
+    private Integer maxPendingAcquire;
+    private Duration leakDetectionThreshold;
+    private double leakDetectionSampleRate = DEFAULT_LEAK_DETECTION_SAMPLE_RATE;
+    private boolean leakDetectionForceClose;
+
+    /**
+     * @return Whether the connection factory of the datasource is wrapped in a pool
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the connection factory of the datasource is wrapped in a pool. Default value ({@value #DEFAULT_ENABLED}).
+     * Pooling is always skipped when the URL already uses the {@code r2dbc:pool:} driver.
+     *
+     * @param enabled True if pooling is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The number of connections opened when the pool is first used
+     */
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    /**
+     * Sets the number of connections opened when the pool is first used. Capped at the max size. Default value ({@value #DEFAULT_INITIAL_SIZE}).
+     *
+     * @param initialSize The initial size
+     */
+    public void setInitialSize(@PositiveOrZero int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    /**
+     * @return The minimum number of idle connections kept by the pool
+     */
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    /**
+     * Sets the minimum number of idle connections kept by the pool.
+     *
+     * @param minIdle The minimum number of idle connections
+     */
+    public void setMinIdle(@PositiveOrZero int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    /**
+     * @return The maximum number of connections of the pool
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the maximum number of connections of the pool. Default value ({@value #DEFAULT_MAX_SIZE}).
+     *
+     * @param maxSize The max size
+     */
+    public void setMaxSize(@Positive int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return The maximum time a connection may sit idle in the pool
+     */
+    public @NonNull Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    /**
+     * Sets the maximum time a connection may sit idle in the pool. Default value (30 minutes).
+     *
+     * @param maxIdleTime The max idle time
+     */
+    public void setMaxIdleTime(@Nullable Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime != null ? maxIdleTime : DEFAULT_MAX_IDLE_TIME;
+    }
+
+    /**
+     * @return The maximum lifetime of a pooled connection
+     */
+    public @Nullable Duration getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    /**
+     * Sets the maximum lifetime of a pooled connection. Unlimited if not set.
+     *
+     * @param maxLifeTime The max lifetime
+     */
+    public void setMaxLifeTime(@Nullable Duration maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    /**
+     * @return The maximum time to wait when acquiring a connection from the pool
+     */
+    public @Nullable Duration getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    /**
+     * Sets the maximum time to wait when acquiring a connection from the pool, including the time queued when the
+     * pending acquisitions are bounded or adaptive sizing is enabled. Unlimited if not set.
+     *
+     * @param maxAcquireTime The acquire timeout
+     */
+    public void setMaxAcquireTime(@Nullable Duration maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    /**
+     * @return The maximum time to wait when the pool opens a new connection
+     */
+    public @Nullable Duration getMaxCreateConnectionTime() {
+        return maxCreateConnectionTime;
+    }
+
+    /**
+     * Sets the maximum time to wait when the pool opens a new connection. Unlimited if not set.
+     *
+     * @param maxCreateConnectionTime The connection creation timeout
+     */
+    public void setMaxCreateConnectionTime(@Nullable Duration maxCreateConnectionTime) {
+        this.maxCreateConnectionTime = maxCreateConnectionTime;
+    }
+
+    /**
+     * @return The interval of the background eviction of idle and expired connections
+     */
+    public @Nullable Duration getBackgroundEvictionInterval() {
+        return backgroundEvictionInterval;
+    }
+
+    /**
+     * Sets the interval of the background eviction of idle and expired connections. If not set connections are only
+     * evicted on acquisition.
+     *
+     * @param backgroundEvictionInterval The eviction interval
+     */
+    public void setBackgroundEvictionInterval(@Nullable Duration backgroundEvictionInterval) {
+        this.backgroundEvictionInterval = backgroundEvictionInterval;
+    }
+
+    /**
+     * @return The query used to validate connections
+     */
+    public @Nullable String getValidationQuery() {
+        return validationQuery;
+    }
+
+    /**
+     * Sets the query used to validate connections. If not set {@link io.r2dbc.spi.Connection#validate(ValidationDepth)}
+     * is used with the configured validation depth.
+     *
+     * @param validationQuery The validation query
+     */
+    public void setValidationQuery(@Nullable String validationQuery) {
+        this.validationQuery = validationQuery;
+    }
+
+    /**
+     * @return The validation depth
+     */
+    public @NonNull ValidationDepth getValidationDepth() {
+        return validationDepth;
+    }
+
+    /**
+     * Sets the validation depth used when no validation query is configured. Default value (LOCAL).
+     *
+     * @param validationDepth The validation depth
+     */
+    public void setValidationDepth(@Nullable ValidationDepth validationDepth) {
+        this.validationDepth = validationDepth != null ? validationDepth : ValidationDepth.LOCAL;
+    }
+
+    /**
+     * @return The maximum number of acquisitions of each priority waiting for a connection
+     */
+    public @Nullable Integer getMaxPendingAcquire() {
+        return maxPendingAcquire;
+    }
+
+    /**
+     * Sets the maximum number of acquisitions of each {@link io.micronaut.r2dbc.pool.AcquirePriority priority} waiting
+     * for a connection. Further acquisitions fail immediately with a
+     * {@link io.micronaut.r2dbc.pool.PendingAcquireLimitExceededException}. Unlimited if not set.
+     *
+     * @param maxPendingAcquire The maximum number of pending acquisitions
+     */
+    public void setMaxPendingAcquire(@Nullable @PositiveOrZero Integer maxPendingAcquire) {
+        this.maxPendingAcquire = maxPendingAcquire;
+    }
+
+    /**
+     * @return The time after which an acquired connection that was not closed is reported as a possible leak
+     */
+    public @Nullable Duration getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+
+    /**
+     * Sets the time after which an acquired connection that was not closed is reported as a possible leak, with the
+     * stack trace of its acquisition. Leak detection is disabled if not set.
+     *
+     * @param leakDetectionThreshold The leak detection threshold
+     */
+    public void setLeakDetectionThreshold(@Nullable Duration leakDetectionThreshold) {
+        this.leakDetectionThreshold = leakDetectionThreshold;
+    }
+
+    /**
+     * @return The fraction of acquisitions whose stack trace is captured for leak detection
+     */
+    public double getLeakDetectionSampleRate() {
+        return leakDetectionSampleRate;
+    }
+
+    /**
+     * Sets the fraction of acquisitions whose stack trace is captured for leak detection, between 0 and 1. Capturing a
+     * stack trace on every acquisition is costly on a busy pool, so only a small fraction is sampled unless set higher
+     * while investigating a leak. Leaks of the other acquisitions are reported without their stack trace. Default value ({@value #DEFAULT_LEAK_DETECTION_SAMPLE_RATE}).
+     *
+     * @param leakDetectionSampleRate The sample rate
+     */
+    public void setLeakDetectionSampleRate(@DecimalMin("0.0") @DecimalMax("1.0") double leakDetectionSampleRate) {
+        this.leakDetectionSampleRate = leakDetectionSampleRate;
+    }
+
+    /**
+     * @return Whether connections reported as leaked are closed, returning them to the pool
+     */
+    public boolean isLeakDetectionForceClose() {
+        return leakDetectionForceClose;
+    }
+
+    /**
+     * Sets whether connections reported as leaked are closed, returning them to the pool. Any further use of a
+     * closed connection by its holder fails. Default value (false).
+     *
+     * @param leakDetectionForceClose True to close leaked connections
+     */
+    public void setLeakDetectionForceClose(boolean leakDetectionForceClose) {
+        this.leakDetectionForceClose = leakDetectionForceClose;
+    }
+}
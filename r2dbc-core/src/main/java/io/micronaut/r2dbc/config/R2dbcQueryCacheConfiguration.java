@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query result cache configuration of an R2DBC datasource, bound from
+ * {@code r2dbc.datasources.<name>.query-cache}. The results of the {@code SELECT} statements reading only the
+ * configured tables are cached, and invalidated by the writes to these tables through the same datasource.
+ *
+ * @see io.micronaut.r2dbc.statement.QueryCacheConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcQueryCacheConfiguration {
+
+    /**
+     * The prefix of the query cache configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "query-cache";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default maximum number of cached queries.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * The default maximum number of cached rows.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_ROWS = 100_000;
+
+    /**
+     * The default time to live.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private List<String> tables = Collections.emptyList();
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private int maxRows = DEFAULT_MAX_ROWS;
+    private Duration ttl = DEFAULT_TTL;
+
+    /**
+     * @return Whether query results are cached
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the results of the queries reading only the cached tables are cached. Default value
+     * ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if the query cache is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The tables whose queries are cached
+     */
+    public @NonNull List<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * Sets the tables whose queries are cached, typically reference data and configuration tables. Names are matched
+     * case-insensitively and without schema. A query is cached only if all the tables it reads are listed.
+     *
+     * @param tables The tables
+     */
+    public void setTables(@Nullable List<String> tables) {
+        this.tables = tables != null ? tables : Collections.emptyList();
+    }
+
+    /**
+     * @return The maximum number of cached queries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Sets the maximum number of cached queries, by SQL and bindings. Beyond that, the queries used the least
+     * frequently are evicted. Default value ({@value #DEFAULT_MAX_ENTRIES}).
+     *
+     * @param maxEntries The maximum number of entries
+     */
+    public void setMaxEntries(@Positive int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return The maximum number of cached rows
+     */
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Sets the maximum number of rows of all the cached queries together. Results with more rows are not cached.
+     * Default value ({@value #DEFAULT_MAX_ROWS}).
+     *
+     * @param maxRows The maximum number of rows
+     */
+    public void setMaxRows(@Positive int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @return The time a result is cached
+     */
+    public @NonNull Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Sets the time a result is cached, which bounds the staleness of results changed other than through this
+     * datasource. Default value (1 minute).
+     *
+     * @param ttl The time to live
+     */
+    public void setTtl(@Nullable Duration ttl) {
+        this.ttl = ttl != null ? ttl : DEFAULT_TTL;
+    }
+}
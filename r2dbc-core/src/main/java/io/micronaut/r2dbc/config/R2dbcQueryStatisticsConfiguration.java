@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Configuration of the statistics of the queries of all R2DBC datasources, bound from
+ * {@code r2dbc.query-statistics}.
+ *
+ * @see io.micronaut.r2dbc.statement.QueryStatistics
+ * @since 5.7.0
+ */
+@ConfigurationProperties(R2dbcQueryStatisticsConfiguration.PREFIX)
+public class R2dbcQueryStatisticsConfiguration {
+
+    /**
+     * The prefix of the query statistics configuration.
+     */
+    public static final String PREFIX = "r2dbc.query-statistics";
+
+    /**
+     * The property to enable the query statistics.
+     */
+    public static final String ENABLED = PREFIX + ".enabled";
+
+    /**
+     * The default maximum number of queries.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_MAX_QUERIES = 1000;
+
+    private boolean enabled;
+    private int maxQueries = DEFAULT_MAX_QUERIES;
+
+    /**
+     * @return Whether query statistics are collected
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether statistics are collected for the queries of all datasources. Default value (false).
+     *
+     * @param enabled True if statistics are collected
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The maximum number of distinct queries
+     */
+    public int getMaxQueries() {
+        return maxQueries;
+    }
+
+    /**
+     * Sets the maximum number of distinct queries, by datasource and SQL with its literals replaced, with their
+     * own statistics. The statistics of the other queries are aggregated together. Default value
+     * ({@value #DEFAULT_MAX_QUERIES}).
+     *
+     * @param maxQueries The maximum number of queries
+     */
+    public void setMaxQueries(@Positive int maxQueries) {
+        this.maxQueries = maxQueries;
+    }
+}
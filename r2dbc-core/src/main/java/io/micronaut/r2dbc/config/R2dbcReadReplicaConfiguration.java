@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read replica configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.read-replicas}.
+ * Replicas are other datasources configured under {@code r2dbc.datasources}, referenced by name.
+ *
+ * @see io.micronaut.r2dbc.routing.ReadWriteRoutingConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcReadReplicaConfiguration {
+
+    /**
+     * The prefix of the read replica configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "read-replicas";
+
+    private List<String> datasources = Collections.emptyList();
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+    private boolean fallbackToPrimary = true;
+
+    /**
+     * @return The names of the replica datasources
+     */
+    public @NonNull List<String> getDatasources() {
+        return datasources;
+    }
+
+    /**
+     * Sets the names of the datasources that are read replicas of this datasource.
+     *
+     * @param datasources The names of the replica datasources
+     */
+    public void setDatasources(@Nullable List<String> datasources) {
+        this.datasources = datasources != null ? datasources : Collections.emptyList();
+    }
+
+    /**
+     * @return The load balancing strategy between replicas
+     */
+    public @NonNull LoadBalancing getLoadBalancing() {
+        return loadBalancing;
+    }
+
+    /**
+     * Sets the load balancing strategy between replicas. Default value (ROUND_ROBIN).
+     *
+     * @param loadBalancing The load balancing strategy
+     */
+    public void setLoadBalancing(@Nullable LoadBalancing loadBalancing) {
+        this.loadBalancing = loadBalancing != null ? loadBalancing : LoadBalancing.ROUND_ROBIN;
+    }
+
+    /**
+     * @return Whether read-only connections are acquired from the primary when a replica fails
+     */
+    public boolean isFallbackToPrimary() {
+        return fallbackToPrimary;
+    }
+
+    /**
+     * Sets whether read-only connections are acquired from the primary when the replica fails. Default value (true).
+     *
+     * @param fallbackToPrimary True to fall back to the primary
+     */
+    public void setFallbackToPrimary(boolean fallbackToPrimary) {
+        this.fallbackToPrimary = fallbackToPrimary;
+    }
+
+    /**
+     * The strategies to select the replica of a read-only connection.
+     */
+    public enum LoadBalancing {
+        /**
+         * Replicas are used in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest pending connection acquisitions is used.
+         */
+        LEAST_PENDING
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+
+/**
+ * Slow query log configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.slow-query-log}.
+ *
+ * @see io.micronaut.r2dbc.statement.SlowQueryLog
+ * @since 5.7.0
+ */
+public class R2dbcSlowQueryLogConfiguration {
+
+    /**
+     * The prefix of the slow query log configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "slow-query-log";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default threshold.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofSeconds(1);
+
+    /**
+     * The default redact bindings value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_REDACT_BINDINGS = true;
+
+    /**
+     * The default number of slowest queries kept.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_TOP_QUERIES = 20;
+
+    /**
+     * The default fraction of slow statements logged with their bound values.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final double DEFAULT_BINDING_SAMPLE_RATE = 1.0;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private Duration threshold = DEFAULT_THRESHOLD;
+    private boolean redactBindings = DEFAULT_REDACT_BINDINGS;
+    private int topQueries = DEFAULT_TOP_QUERIES;
+    private double bindingSampleRate = DEFAULT_BINDING_SAMPLE_RATE;
+
+    /**
+     * @return Whether slow queries are logged
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether statements slower than the threshold are logged. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if the slow query log is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The duration above which a statement is slow
+     */
+    public @NonNull Duration getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the duration, from the execution of a statement to the consumption of its last row, above which the
+     * statement is logged. Default value (1 second).
+     *
+     * @param threshold The threshold
+     */
+    public void setThreshold(@Nullable Duration threshold) {
+        this.threshold = threshold != null ? threshold : DEFAULT_THRESHOLD;
+    }
+
+    /**
+     * @return Whether the values bound to slow statements are hidden
+     */
+    public boolean isRedactBindings() {
+        return redactBindings;
+    }
+
+    /**
+     * Sets whether the values bound to slow statements are replaced with {@code ?} when they are logged, and the
+     * literals of their SQL as well. Default value ({@value #DEFAULT_REDACT_BINDINGS}).
+     *
+     * @param redactBindings True to hide the values
+     */
+    public void setRedactBindings(boolean redactBindings) {
+        this.redactBindings = redactBindings;
+    }
+
+    /**
+     * @return The number of slowest queries kept
+     */
+    public int getTopQueries() {
+        return topQueries;
+    }
+
+    /**
+     * Sets the number of slowest queries, by SQL with its literals replaced, kept in memory for the
+     * {@code slowqueries} management endpoint. Default value ({@value #DEFAULT_TOP_QUERIES}).
+     *
+     * @param topQueries The number of queries
+     */
+    public void setTopQueries(@Positive int topQueries) {
+        this.topQueries = topQueries;
+    }
+
+    /**
+     * @return The fraction of slow statements logged with their bound values
+     */
+    public double getBindingSampleRate() {
+        return bindingSampleRate;
+    }
+
+    /**
+     * Sets the fraction of slow statements, between 0 and 1, logged with their bound values when the bindings are not
+     * redacted. The values of the other statements are replaced with {@code ?}, which limits how much of the data
+     * ends up in the logs while still showing representative values. Default value
+     * ({@value #DEFAULT_BINDING_SAMPLE_RATE}).
+     *
+     * @param bindingSampleRate The sample rate
+     */
+    public void setBindingSampleRate(@DecimalMin("0.0") @DecimalMax("1.0") double bindingSampleRate) {
+        this.bindingSampleRate = bindingSampleRate;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Startup configuration of all R2DBC datasources, bound from {@code r2dbc.startup}.
+ *
+ * @see io.micronaut.r2dbc.pool.ConnectionPoolWarmup
+ * @since 5.7.0
+ */
+@ConfigurationProperties(R2dbcStartupConfiguration.PREFIX)
+public class R2dbcStartupConfiguration {
+
+    /**
+     * The prefix of the startup configuration.
+     */
+    public static final String PREFIX = "r2dbc.startup";
+
+    /**
+     * The default parallelism.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * @return The maximum number of datasources warmed up in parallel
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the maximum number of datasources warmed up in parallel at startup, so the startup takes about as long as
+     * the slowest warm-up rather than the sum of them. 1 warms them up one after the other. Default value
+     * ({@value #DEFAULT_PARALLELISM}).
+     *
+     * @param parallelism The parallelism
+     */
+    public void setParallelism(@Positive int parallelism) {
+        this.parallelism = parallelism;
+    }
+}
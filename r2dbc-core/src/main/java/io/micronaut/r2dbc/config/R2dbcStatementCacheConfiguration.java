@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Prepared statement cache configuration of an R2DBC datasource, bound from
+ * {@code r2dbc.datasources.<name>.statement-cache}. The size is applied to the native statement cache of the driver,
+ * which is kept per connection:
+ *
+ * <ul>
+ *     <li>PostgreSQL: {@code preparedStatementCacheQueries}</li>
+ *     <li>MariaDB and MySQL: {@code prepareCacheSize}</li>
+ *     <li>Oracle: {@code oracle.jdbc.implicitStatementCacheSize}</li>
+ * </ul>
+ *
+ * <p>The statistics of the cache are only tracked for these drivers, and not for an {@code r2dbc:pool:} URL.</p>
+ *
+ * @see io.micronaut.r2dbc.statement.StatementCacheConnectionFactory
+ * @since 5.7.0
+ */
+public class R2dbcStatementCacheConfiguration {
+
+    /**
+     * The prefix of the statement cache configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "statement-cache";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default size.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_SIZE = 256;
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int size = DEFAULT_SIZE;
+
+    /**
+     * @return Whether the statement cache is configured by this module
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the statement cache of the driver is configured and tracked by this module. Otherwise the
+     * defaults of the driver apply. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if the statement cache is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The maximum number of statements cached per connection
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the maximum number of statements cached per connection, the least recently used statement is evicted
+     * beyond that. 0 disables the cache of the driver. Default value ({@value #DEFAULT_SIZE}).
+     *
+     * @param size The size
+     */
+    public void setSize(@PositiveOrZero int size) {
+        this.size = size;
+    }
+}
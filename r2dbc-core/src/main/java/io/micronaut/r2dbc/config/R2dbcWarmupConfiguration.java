@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.config;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+
+/**
+ * Startup warm-up configuration of an R2DBC datasource, bound from {@code r2dbc.datasources.<name>.warmup}.
+ *
+ * @see io.micronaut.r2dbc.pool.ConnectionPoolWarmup
+ * @since 5.7.0
+ */
+public class R2dbcWarmupConfiguration {
+
+    /**
+     * The prefix of the warm-up configuration, relative to the datasource.
+     */
+    public static final String PREFIX = "warmup";
+
+    /**
+     * The default enabled value.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /**
+     * The default concurrency.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    /**
+     * The default timeout.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private boolean enabled = DEFAULT_ENABLED;
+    private int connections;
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private Duration timeout = DEFAULT_TIMEOUT;
+    private boolean failFast;
+
+    /**
+     * @return Whether connections are opened at startup
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether connections are opened at startup. Default value ({@value #DEFAULT_ENABLED}).
+     *
+     * @param enabled True if warm-up is enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The number of connections to open, 0 to use the initial size of the pool
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * Sets the number of connections to open. Capped at the max size of the pool. If not set the initial size of
+     * the pool is used.
+     *
+     * @param connections The number of connections
+     */
+    public void setConnections(@PositiveOrZero int connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * @return The maximum number of connections opened in parallel
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the maximum number of connections opened in parallel. Default value ({@value #DEFAULT_CONCURRENCY}).
+     *
+     * @param concurrency The concurrency
+     */
+    public void setConcurrency(@Positive int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return The maximum duration of the warm-up
+     */
+    public @NonNull Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the maximum duration of the warm-up. Default value (30 seconds).
+     *
+     * @param timeout The timeout
+     */
+    public void setTimeout(@Nullable Duration timeout) {
+        this.timeout = timeout != null ? timeout : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * @return Whether startup fails when the warm-up fails
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Sets whether startup fails when a connection cannot be opened or the timeout expires. Otherwise the warm-up is
+     * best-effort and keeps the connections that could be opened in time. Default value (false).
+     *
+     * @param failFast True to fail startup
+     */
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+}
@@ -23,17 +23,30 @@ import io.micronaut.management.endpoint.health.HealthEndpoint;
 import io.micronaut.management.health.indicator.HealthIndicator;
 import io.micronaut.management.health.indicator.HealthResult;
 import io.micronaut.r2dbc.config.R2dbcHealthConfiguration;
+import io.micronaut.r2dbc.pool.AcquirePriority;
+import io.micronaut.r2dbc.pool.ConnectionPoolListener;
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.LazyConnectionFactory;
+import io.r2dbc.pool.PoolMetrics;
 import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import jakarta.inject.Inject;
 import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Supports R2DBC Connection Factory health check.
@@ -47,16 +60,36 @@ import java.util.Optional;
 @EachBean(ConnectionFactory.class)
 public class R2dbcHealthIndicator implements HealthIndicator {
 
+    /**
+     * The status reported when the health check is slower than the configured degraded threshold. It is not
+     * operational, so the health endpoint responds with an error status before the database is DOWN.
+     *
+     * @since 5.7.0
+     */
+    public static final HealthStatus DEGRADED = new HealthStatus("DEGRADED", "database responds slowly", false, 500);
+
+    private static final Logger LOG = LoggerFactory.getLogger(R2dbcHealthIndicator.class);
+
     private static final String NAME = "r2dbc-connection-factory";
     private static final String DETAILS_METADATA = "metadata";
+    private static final String DETAILS_POOL = "pool";
+    private static final String DETAILS_ACQUIRE_LATENCY = "acquireLatencyMillis";
+    private static final String DETAILS_LATENCY = "latencyMillis";
 
     private final ConnectionFactory connectionFactory;
     private final Mono<String> healthQuery;
+    private final Mono<HealthResult> result;
+    private volatile PoolState poolState;
+    private final LazyConnectionFactory lazyConnectionFactory;
+    private final Duration timeout;
+    private final Duration degradedThreshold;
 
     @Inject
     public R2dbcHealthIndicator(ConnectionFactory connectionFactory,
                                 R2dbcHealthConfiguration healthConfiguration) {
         this.connectionFactory = connectionFactory;
+        this.timeout = healthConfiguration.getTimeout();
+        this.degradedThreshold = healthConfiguration.getDegradedThreshold();
         this.healthQuery = Mono.<String>create(sink -> {
             final String metadataName = connectionFactory.getMetadata().getName();
             Optional<String> query = healthConfiguration.getHealthQuery(metadataName);
@@ -69,17 +102,73 @@ public class R2dbcHealthIndicator implements HealthIndicator {
             }
             sink.success();
         }).cache();
+        this.lazyConnectionFactory = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory.class).orElse(null);
+        if (healthConfiguration.isPoolStateEnabled()) {
+            Duration poolStateMaxAge = healthConfiguration.getPoolStateMaxAge();
+            if (lazyConnectionFactory != null) {
+                // the pool of a lazily initialized datasource does not exist until its first acquisition
+                lazyConnectionFactory.whenInitialized(initialized -> poolState = poolState(initialized, poolStateMaxAge));
+            } else {
+                this.poolState = poolState(connectionFactory, poolStateMaxAge);
+            }
+        }
+        Mono<HealthResult> check = Mono.defer(this::check);
+        Duration cacheTtl = healthConfiguration.getCacheTtl();
+        this.result = cacheTtl != null && !cacheTtl.isZero() && !cacheTtl.isNegative() ? check.cache(cacheTtl) : check;
     }
 
     @Override
     public Publisher<HealthResult> getResult() {
-        return healthQuery.flatMap(query -> Mono.usingWhen(Mono.fromDirect(connectionFactory.create()),
+        return result;
+    }
+
+    private Mono<HealthResult> check() {
+        PoolState state = poolState;
+        if (state != null) {
+            HealthResult poolResult = state.result();
+            if (poolResult != null) {
+                return Mono.just(poolResult);
+            }
+        }
+        if (lazyConnectionFactory != null && !lazyConnectionFactory.isInitialized()) {
+            // the metadata of the driver selects the query, and the check acquires a connection anyway. Creating the
+            // connection factory blocks, so it does not run on the event loop serving the health endpoint
+            return Mono.fromCallable(lazyConnectionFactory::initialize)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(initialized -> healthQuery.flatMap(this::query))
+                    .onErrorResume(e -> Mono.just(buildDownResult(e)));
+        }
+        return healthQuery.flatMap(this::query);
+    }
+
+    private static PoolState poolState(ConnectionFactory connectionFactory, Duration maxAge) {
+        Optional<R2dbcConnectionPool> pool = DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool.class);
+        if (pool.isEmpty()) {
+            // an r2dbc:pool: URL or a custom pool does not notify its acquisitions
+            if (LOG.isInfoEnabled()) {
+                LOG.info("R2DBC connection factory {} is not pooled by the pool of the module, its health is checked with the health query rather than from the pool state",
+                        connectionFactory.getMetadata().getName());
+            }
+            return null;
+        }
+        return new PoolState(pool.get(), maxAge);
+    }
+
+    private Mono<HealthResult> query(String query) {
+        long start = System.nanoTime();
+        AtomicLong acquireLatency = new AtomicLong();
+        Mono<HealthResult> probe = Mono.usingWhen(Mono.fromDirect(connectionFactory.create())
+                                .doOnNext(connection -> acquireLatency.set(System.nanoTime() - start)),
                         connection -> Mono.fromDirect(connection.createStatement(query).execute())
                                 .flatMapMany(result -> result.map(this::extractQueryResult))
                                 .next(),
                         Connection::close, (o, throwable) -> o.close(), Connection::close)
-                .map(this::buildUpResult)
-                .onErrorResume(e -> Mono.just(buildDownResult(e))));
+                .map(metadata -> buildUpResult(metadata, Duration.ofNanos(acquireLatency.get()), Duration.ofNanos(System.nanoTime() - start)))
+                .contextWrite(context -> R2dbcConnectionPool.withPriority(context, AcquirePriority.HIGH));
+        if (timeout != null) {
+            probe = probe.timeout(timeout, Mono.error(() -> new TimeoutException("Health check did not complete within " + timeout.toMillis() + "ms")));
+        }
+        return probe.onErrorResume(e -> Mono.just(buildDownResult(e)));
     }
 
     /**
@@ -92,10 +181,14 @@ public class R2dbcHealthIndicator implements HealthIndicator {
         return Collections.singletonMap(DETAILS_METADATA, meta);
     }
 
-    private HealthResult buildUpResult(Map<String, Object> metadata) {
+    private HealthResult buildUpResult(Map<String, Object> metadata, Duration acquireLatency, Duration latency) {
+        Map<String, Object> details = new LinkedHashMap<>(metadata);
+        details.put(DETAILS_ACQUIRE_LATENCY, acquireLatency.toMillis());
+        details.put(DETAILS_LATENCY, latency.toMillis());
+        boolean degraded = degradedThreshold != null && latency.compareTo(degradedThreshold) > 0;
         return HealthResult.builder(NAME)
-                .status(HealthStatus.UP)
-                .details(metadata)
+                .status(degraded ? DEGRADED : HealthStatus.UP)
+                .details(details)
                 .build();
     }
 
@@ -105,4 +198,60 @@ public class R2dbcHealthIndicator implements HealthIndicator {
                 .exception(throwable)
                 .build();
     }
+
+    /**
+     * Tracks the acquisitions of a pool, which are validated by the pool, to report health without a query.
+     */
+    private static final class PoolState implements ConnectionPoolListener {
+
+        private final R2dbcConnectionPool pool;
+        private final long maxAgeNanos;
+        private volatile long lastAcquire;
+        private volatile long lastFailure;
+        private volatile boolean acquired;
+        private volatile boolean failed;
+
+        PoolState(R2dbcConnectionPool pool, Duration maxAge) {
+            this.pool = pool;
+            this.maxAgeNanos = maxAge.toNanos();
+            pool.addListener(this);
+        }
+
+        @Override
+        public void onAcquire(Duration duration) {
+            lastAcquire = System.nanoTime();
+            acquired = true;
+        }
+
+        @Override
+        public void onAcquireFailure(Duration duration, Throwable throwable) {
+            lastFailure = System.nanoTime();
+            failed = true;
+        }
+
+        /**
+         * @return The result if a connection was acquired recently and no acquisition failed since, otherwise null
+         */
+        HealthResult result() {
+            long last = lastAcquire;
+            long age = System.nanoTime() - last;
+            if (!acquired || age > maxAgeNanos || (failed && lastFailure - last > 0)) {
+                return null;
+            }
+            PoolMetrics metrics = pool.getMetrics().orElse(null);
+            if (metrics == null || metrics.allocatedSize() == 0) {
+                return null;
+            }
+            Map<String, Object> details = new LinkedHashMap<>(5);
+            details.put("acquired", metrics.acquiredSize());
+            details.put("idle", metrics.idleSize());
+            details.put("pending", metrics.pendingAcquireSize());
+            details.put("allocated", metrics.allocatedSize());
+            details.put("lastValidatedMillisAgo", Duration.ofNanos(age).toMillis());
+            return HealthResult.builder(NAME)
+                    .status(HealthStatus.UP)
+                    .details(Collections.singletonMap(DETAILS_POOL, details))
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.management;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Delete;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.r2dbc.statement.QueryStatistics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the statistics of the queries of the R2DBC datasources, by decreasing total time.
+ *
+ * @see QueryStatistics
+ * @since 5.7.0
+ */
+@Endpoint(id = QueryStatisticsEndpoint.NAME)
+@Requires(classes = Endpoint.class)
+@Requires(beans = QueryStatistics.class)
+public class QueryStatisticsEndpoint {
+
+    /**
+     * The id of the endpoint.
+     */
+    public static final String NAME = "querystats";
+
+    private static final double P99 = 99.0;
+
+    private final QueryStatistics queryStatistics;
+
+    /**
+     * @param queryStatistics The query statistics
+     */
+    public QueryStatisticsEndpoint(QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    /**
+     * @return The statistics of the queries, by decreasing total time
+     */
+    @Read
+    public List<Map<String, Object>> queryStatistics() {
+        List<QueryStatistics.QueryStatistic> queries = queryStatistics.getQueries();
+        List<Map<String, Object>> result = new ArrayList<>(queries.size());
+        for (QueryStatistics.QueryStatistic query : queries) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("datasource", query.getDatasource());
+            details.put("sql", query.getSql());
+            details.put("calls", query.getCalls());
+            details.put("errors", query.getErrors());
+            details.put("rows", query.getRows());
+            details.put("totalMillis", millis(query.getTotalTime().toNanos()));
+            details.put("meanMillis", millis(query.getMeanTime().toNanos()));
+            details.put("p99Millis", millis(query.getPercentile(P99).toNanos()));
+            details.put("maxMillis", millis(query.getMaxTime().toNanos()));
+            result.add(details);
+        }
+        return result;
+    }
+
+    /**
+     * Discards the statistics collected so far.
+     */
+    @Delete
+    public void reset() {
+        queryStatistics.reset();
+    }
+
+    private static double millis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.management;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.r2dbc.statement.SlowQueryLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the slowest queries of the R2DBC datasources with a slow query log enabled.
+ *
+ * @see SlowQueryLog
+ * @since 5.7.0
+ */
+@Endpoint(id = SlowQueriesEndpoint.NAME)
+@Requires(classes = Endpoint.class)
+@Requires(condition = SlowQueryLogEnabledCondition.class)
+public class SlowQueriesEndpoint {
+
+    /**
+     * The id of the endpoint.
+     */
+    public static final String NAME = "slowqueries";
+
+    private final SlowQueryLog slowQueryLog;
+
+    /**
+     * @param slowQueryLog The slow query log
+     */
+    public SlowQueriesEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @return The slowest queries by datasource name, slowest first
+     */
+    @Read
+    public Map<String, List<Map<String, Object>>> slowQueries() {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        slowQueryLog.getSlowestQueries().forEach((datasource, queries) -> {
+            List<Map<String, Object>> list = new ArrayList<>(queries.size());
+            for (SlowQueryLog.SlowQuery query : queries) {
+                Map<String, Object> details = new LinkedHashMap<>();
+                details.put("sql", query.getSql());
+                details.put("count", query.getCount());
+                details.put("maxMillis", query.getMaxDuration().toMillis());
+                details.put("lastMillis", query.getLastDuration().toMillis());
+                details.put("lastBindings", query.getLastBindings());
+                details.put("lastExecuted", query.getLastExecuted().toString());
+                list.add(details);
+            }
+            result.put(datasource, list);
+        });
+        return result;
+    }
+}
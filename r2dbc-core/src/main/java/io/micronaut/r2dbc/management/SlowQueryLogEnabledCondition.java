@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.management;
+
+import io.micronaut.context.condition.Condition;
+import io.micronaut.context.condition.ConditionContext;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.r2dbc.config.R2dbcSlowQueryLogConfiguration;
+
+/**
+ * Matches if the slow query log of at least one R2DBC datasource is enabled.
+ *
+ * @since 5.7.0
+ */
+@Internal
+public final class SlowQueryLogEnabledCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context) {
+        return context.getBeanContext().getBeansOfType(R2dbcSlowQueryLogConfiguration.class).stream()
+                .anyMatch(R2dbcSlowQueryLogConfiguration::isEnabled);
+    }
+}
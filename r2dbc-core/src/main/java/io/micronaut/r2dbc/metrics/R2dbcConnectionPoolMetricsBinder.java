@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.r2dbc.BasicR2dbcProperties;
+import io.micronaut.r2dbc.pool.AcquirePriority;
+import io.micronaut.r2dbc.pool.ConnectionPoolListener;
+import io.micronaut.r2dbc.pool.HostConcurrencyLimit;
+import io.micronaut.r2dbc.pool.HostLimitedConnectionFactory;
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool;
+import io.micronaut.r2dbc.routing.FailoverConnectionFactory;
+import io.micronaut.r2dbc.statement.QueryCacheConnectionFactory;
+import io.micronaut.r2dbc.statement.StatementCacheConnectionFactory;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.LazyConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Binds the metrics of a pooled R2DBC {@link ConnectionFactory}, of its statement cache and of its query cache to
+ * Micrometer, tagged by datasource name.
+ *
+ * @since 5.7.0
+ */
+@Requires(classes = MeterBinder.class)
+@Requires(beans = MeterRegistry.class)
+@Requires(property = R2dbcConnectionPoolMetricsBinder.ENABLED, notEquals = StringUtils.FALSE)
+@EachBean(ConnectionFactory.class)
+public class R2dbcConnectionPoolMetricsBinder implements MeterBinder {
+
+    /**
+     * The property to disable the binder.
+     */
+    public static final String ENABLED = "micronaut.metrics.binders.r2dbc.enabled";
+
+    /**
+     * The prefix of the metric names.
+     */
+    public static final String METRIC_PREFIX = "r2dbc.pool";
+
+    /**
+     * The prefix of the statement cache metric names.
+     */
+    public static final String STATEMENT_CACHE_METRIC_PREFIX = "r2dbc.statement-cache";
+
+    /**
+     * The prefix of the query result cache metric names.
+     */
+    public static final String QUERY_CACHE_METRIC_PREFIX = "r2dbc.query-cache";
+
+    /**
+     * The prefix of the database host metric names.
+     */
+    public static final String HOST_METRIC_PREFIX = "r2dbc.host";
+
+    private static final String TAG_NAME = "name";
+    private static final String TAG_RESULT = "result";
+    private static final String TAG_CLOSED = "closed";
+    private static final String TAG_PRIORITY = "priority";
+    private static final String TAG_HOST = "host";
+
+    private final String name;
+    private final ConnectionFactory connectionFactory;
+
+    /**
+     * @param connectionFactory The connection factory
+     * @param properties The properties of the datasource, if it was configured by this module
+     */
+    public R2dbcConnectionPoolMetricsBinder(@Parameter ConnectionFactory connectionFactory,
+                                            @Parameter @Nullable BasicR2dbcProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.name = properties != null ? properties.getName() : connectionFactory.getMetadata().getName();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory.class)
+                .ifPresent(queryCache -> bindQueryCache(registry, queryCache));
+        Optional<LazyConnectionFactory> lazy = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory.class);
+        if (lazy.isPresent()) {
+            // the pool of a lazily initialized datasource does not exist until its first acquisition
+            lazy.get().whenInitialized(initialized -> bindTo(registry, initialized));
+        } else {
+            bindTo(registry, connectionFactory);
+        }
+    }
+
+    private void bindTo(MeterRegistry registry, ConnectionFactory connectionFactory) {
+        ConnectionPool connectionPool = DelegatingConnectionFactory.find(connectionFactory, ConnectionPool.class).orElse(null);
+        StatementCacheConnectionFactory statementCache = DelegatingConnectionFactory.find(connectionFactory, StatementCacheConnectionFactory.class).orElse(null);
+        for (HostConcurrencyLimit hostLimit : hostLimits(connectionFactory, connectionPool)) {
+            bindHost(registry, hostLimit);
+        }
+        Tags tags = Tags.of(TAG_NAME, name);
+        if (statementCache != null) {
+            statementCacheCounter(registry, statementCache, "hits", "Statements created with a SQL cached by the connection", tags, StatementCacheConnectionFactory::getHits);
+            statementCacheCounter(registry, statementCache, "misses", "Statements created with a SQL not cached by the connection", tags, StatementCacheConnectionFactory::getMisses);
+            statementCacheCounter(registry, statementCache, "evictions", "Statements evicted from the caches of the connections", tags, StatementCacheConnectionFactory::getEvictions);
+        }
+        if (connectionPool == null) {
+            return;
+        }
+        gauge(registry, connectionPool, "acquired", "Connections currently acquired from the pool", tags, PoolMetrics::acquiredSize);
+        gauge(registry, connectionPool, "idle", "Idle connections in the pool", tags, PoolMetrics::idleSize);
+        gauge(registry, connectionPool, "pending", "Acquisitions waiting for a connection", tags, PoolMetrics::pendingAcquireSize);
+        gauge(registry, connectionPool, "allocated", "Connections allocated by the pool, idle or acquired", tags, PoolMetrics::allocatedSize);
+        gauge(registry, connectionPool, "max.allocated", "Maximum number of connections of the pool", tags, PoolMetrics::getMaxAllocatedSize);
+        gauge(registry, connectionPool, "max.pending", "Maximum number of pending acquisitions", tags, PoolMetrics::getMaxPendingAcquireSize);
+
+        if (connectionPool instanceof R2dbcConnectionPool pool) {
+            Gauge.builder(METRIC_PREFIX + ".limit", pool, R2dbcConnectionPool::getConcurrencyLimit)
+                    .description("Connections that can be in use at once, adapted to the latency with adaptive sizing")
+                    .tags(tags)
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".leaks.active", pool, R2dbcConnectionPool::getSuspectedLeaks)
+                    .description("Acquired connections held longer than the leak detection threshold")
+                    .tags(tags)
+                    .register(registry);
+            for (AcquirePriority priority : AcquirePriority.values()) {
+                Gauge.builder(METRIC_PREFIX + ".queued", pool, p -> p.getQueuedAcquisitions(priority))
+                        .description("Acquisitions queued for a connection when the pending acquisitions are bounded")
+                        .tags(tags)
+                        .tag(TAG_PRIORITY, priority.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+            pool.addListener(new MetricsListener(registry, tags));
+        }
+    }
+
+    private void bindQueryCache(MeterRegistry registry, QueryCacheConnectionFactory queryCache) {
+        Tags tags = Tags.of(TAG_NAME, name);
+        queryCacheCounter(registry, queryCache, "hits", "Query executions served from the query cache", tags, QueryCacheConnectionFactory::getHits);
+        queryCacheCounter(registry, queryCache, "misses", "Cacheable query executions not served from the query cache", tags, QueryCacheConnectionFactory::getMisses);
+        queryCacheCounter(registry, queryCache, "evictions", "Query results evicted from the query cache", tags, QueryCacheConnectionFactory::getEvictions);
+        queryCacheCounter(registry, queryCache, "invalidations", "Query results removed by writes to their tables", tags, QueryCacheConnectionFactory::getInvalidations);
+        Gauge.builder(QUERY_CACHE_METRIC_PREFIX + ".size", queryCache, QueryCacheConnectionFactory::getSize)
+                .description("Query results in the query cache")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(QUERY_CACHE_METRIC_PREFIX + ".rows", queryCache, QueryCacheConnectionFactory::getRows)
+                .description("Rows of the query results in the query cache")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * The host limits of the datasource: of its driver connection factory, of each failover host, and of its adaptive
+     * pool.
+     */
+    private static Set<HostConcurrencyLimit> hostLimits(ConnectionFactory connectionFactory, @Nullable ConnectionPool connectionPool) {
+        Set<HostConcurrencyLimit> hostLimits = Collections.newSetFromMap(new IdentityHashMap<>());
+        DelegatingConnectionFactory.find(connectionFactory, HostLimitedConnectionFactory.class)
+                .ifPresent(hostLimited -> hostLimits.add(hostLimited.getLimit()));
+        DelegatingConnectionFactory.find(connectionFactory, FailoverConnectionFactory.class).ifPresent(failover -> {
+            for (FailoverConnectionFactory.Endpoint endpoint : failover.getEndpoints()) {
+                DelegatingConnectionFactory.find(endpoint.getConnectionFactory(), HostLimitedConnectionFactory.class)
+                        .ifPresent(hostLimited -> hostLimits.add(hostLimited.getLimit()));
+            }
+        });
+        if (connectionPool instanceof R2dbcConnectionPool pool && pool.getHostLimit() != null) {
+            hostLimits.add(pool.getHostLimit());
+        }
+        return hostLimits;
+    }
+
+    private static void bindHost(MeterRegistry registry, HostConcurrencyLimit limit) {
+        // shared by the datasources of the host, registered once
+        Tags tags = Tags.of(TAG_HOST, limit.getHost());
+        Gauge.builder(HOST_METRIC_PREFIX + ".connections.active", limit, HostConcurrencyLimit::getAllocated)
+                .description("Connections open to the database host or claimed by adaptive pools, across the datasources")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(HOST_METRIC_PREFIX + ".connections.max", limit, HostConcurrencyLimit::getMaxSize)
+                .description("Maximum number of connections open to the database host")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(HOST_METRIC_PREFIX + ".connections.queued", limit, HostConcurrencyLimit::getQueued)
+                .description("Connection openings waiting for a connection to the database host to be closed")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(HOST_METRIC_PREFIX + ".connections.throttled", limit, HostConcurrencyLimit::getThrottled)
+                .description("Connection openings that had to wait for the host connection limit")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, ConnectionPool connectionPool, String metric, String description, Tags tags, ToIntFunction<PoolMetrics> value) {
+        Gauge.builder(METRIC_PREFIX + "." + metric, connectionPool, pool -> {
+                    Optional<PoolMetrics> metrics = pool.getMetrics();
+                    return metrics.map(value::applyAsInt).orElse(0);
+                })
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void statementCacheCounter(MeterRegistry registry, StatementCacheConnectionFactory statementCache,
+                                       String metric, String description, Tags tags,
+                                       ToDoubleFunction<StatementCacheConnectionFactory> value) {
+        FunctionCounter.builder(STATEMENT_CACHE_METRIC_PREFIX + "." + metric, statementCache, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void queryCacheCounter(MeterRegistry registry, QueryCacheConnectionFactory queryCache,
+                                   String metric, String description, Tags tags,
+                                   ToDoubleFunction<QueryCacheConnectionFactory> value) {
+        FunctionCounter.builder(QUERY_CACHE_METRIC_PREFIX + "." + metric, queryCache, value)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * Records the acquisitions and the opened and closed connections of the pool.
+     */
+    private static final class MetricsListener implements ConnectionPoolListener {
+
+        private final Timer acquireSuccess;
+        private final Timer acquireFailure;
+        private final Counter rejected;
+        private final Counter created;
+        private final Counter closed;
+        private final Counter leaks;
+        private final Counter leaksClosed;
+
+        MetricsListener(MeterRegistry registry, Tags tags) {
+            this.acquireSuccess = acquireTimer(registry, tags, "success");
+            this.acquireFailure = acquireTimer(registry, tags, "failure");
+            this.rejected = Counter.builder(METRIC_PREFIX + ".acquire.rejected")
+                    .description("Acquisitions rejected because the pending acquisitions reached the maximum")
+                    .tags(tags)
+                    .register(registry);
+            this.created = Counter.builder(METRIC_PREFIX + ".connections.created")
+                    .description("Connections opened by the pool")
+                    .tags(tags)
+                    .register(registry);
+            this.closed = Counter.builder(METRIC_PREFIX + ".connections.closed")
+                    .description("Connections closed by the pool")
+                    .tags(tags)
+                    .register(registry);
+            this.leaks = leakCounter(registry, tags, "false");
+            this.leaksClosed = leakCounter(registry, tags, "true");
+        }
+
+        @Override
+        public void onAcquire(Duration duration) {
+            acquireSuccess.record(duration);
+        }
+
+        @Override
+        public void onAcquireFailure(Duration duration, Throwable throwable) {
+            acquireFailure.record(duration);
+        }
+
+        @Override
+        public void onAcquireRejected() {
+            rejected.increment();
+        }
+
+        @Override
+        public void onConnectionCreated() {
+            created.increment();
+        }
+
+        @Override
+        public void onConnectionClosed() {
+            closed.increment();
+        }
+
+        @Override
+        public void onLeakSuspected(Duration held, boolean forceClosed) {
+            (forceClosed ? leaksClosed : leaks).increment();
+        }
+
+        private static Counter leakCounter(MeterRegistry registry, Tags tags, String closed) {
+            return Counter.builder(METRIC_PREFIX + ".leaks")
+                    .description("Acquired connections reported as leaked")
+                    .tags(tags)
+                    .tag(TAG_CLOSED, closed)
+                    .register(registry);
+        }
+
+        private static Timer acquireTimer(MeterRegistry registry, Tags tags, String result) {
+            return Timer.builder(METRIC_PREFIX + ".acquire")
+                    .description("Time spent acquiring a connection from the pool")
+                    .tags(tags)
+                    .tag(TAG_RESULT, result)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.observation;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.config.R2dbcObservationConfiguration;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.DelegatingResult;
+import io.micronaut.r2dbc.support.DelegatingStatement;
+import io.micronaut.r2dbc.support.SqlSanitizer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConnectionFactory} that observes connection acquisitions, statement executions and result consumptions
+ * with the Micrometer Observation API, so they appear as timers and as spans of the distributed traces. The
+ * observations are parented to the observation of the Reactor context, if any, and never block.
+ *
+ * <ul>
+ *     <li>{@value #ACQUIRE}: the acquisition of a connection</li>
+ *     <li>{@value #QUERY}: the execution of a statement, with its SQL and number of bindings</li>
+ *     <li>{@value #RESULT}: the consumption of a result, with the number of rows</li>
+ * </ul>
+ *
+ * @since 5.7.0
+ */
+public class ObservationConnectionFactory extends DelegatingConnectionFactory {
+
+    /**
+     * The name of the connection acquisition observation.
+     */
+    public static final String ACQUIRE = "r2dbc.connection.acquire";
+
+    /**
+     * The name of the statement execution observation.
+     */
+    public static final String QUERY = "r2dbc.query";
+
+    /**
+     * The name of the result consumption observation.
+     */
+    public static final String RESULT = "r2dbc.result";
+
+    /**
+     * The key of the current observation in the Reactor context, as used by Micrometer context propagation.
+     */
+    public static final String OBSERVATION_KEY = "micrometer.observation";
+
+    private static final String KEY_NAME = "r2dbc.name";
+    private static final String KEY_SYSTEM = "db.system";
+    private static final String KEY_STATEMENT = "db.statement";
+    private static final String KEY_BINDINGS = "r2dbc.bindings";
+    private static final String KEY_ROWS = "r2dbc.rows";
+    private static final int MAX_SANITIZED = 1024;
+
+    private final String name;
+    private final String system;
+    private final ObservationRegistry registry;
+    private final boolean sanitizeSql;
+    private final Map<String, String> sanitized = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate The connection factory to delegate to
+     * @param name The name of the datasource
+     * @param registry The observation registry
+     * @param configuration The observation configuration
+     */
+    public ObservationConnectionFactory(@NonNull ConnectionFactory delegate,
+                                        @NonNull String name,
+                                        @NonNull ObservationRegistry registry,
+                                        @NonNull R2dbcObservationConfiguration configuration) {
+        super(delegate);
+        this.name = name;
+        this.system = delegate.getMetadata().getName();
+        this.registry = registry;
+        this.sanitizeSql = configuration.isSanitizeSql();
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> {
+            Observation observation = observation(ACQUIRE, context);
+            return Mono.<Connection>from(super.create())
+                    .<Connection>map(ObservationConnection::new)
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(ctx -> ctx.put(OBSERVATION_KEY, observation));
+        });
+    }
+
+    /**
+     * The SQL recorded by the observations, sanitized once per SQL string if configured.
+     */
+    private String statement(String sql) {
+        if (!sanitizeSql) {
+            return sql;
+        }
+        String statement = sanitized.get(sql);
+        if (statement == null) {
+            if (sanitized.size() >= MAX_SANITIZED) {
+                sanitized.clear();
+            }
+            statement = SqlSanitizer.sanitize(sql);
+            sanitized.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private Observation observation(String observationName, ContextView context) {
+        Observation parent = context.getOrDefault(OBSERVATION_KEY, registry.getCurrentObservation());
+        return Observation.createNotStarted(observationName, registry)
+                .parentObservation(parent)
+                .lowCardinalityKeyValue(KEY_NAME, name)
+                .lowCardinalityKeyValue(KEY_SYSTEM, system)
+                .start();
+    }
+
+    /**
+     * Observes the statements of a connection.
+     */
+    private final class ObservationConnection extends DelegatingConnection {
+
+        ObservationConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new ObservationStatement(super.createStatement(sql), sql);
+        }
+    }
+
+    /**
+     * Observes the execution of a statement.
+     */
+    private final class ObservationStatement extends DelegatingStatement {
+
+        private final String sql;
+        private int bindings;
+
+        ObservationStatement(Statement delegate, String sql) {
+            super(delegate);
+            this.sql = sql;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            bindings++;
+            return super.bind(index, value);
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            bindings++;
+            return super.bind(name, value);
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            bindings++;
+            return super.bindNull(index, type);
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            bindings++;
+            return super.bindNull(name, type);
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            int count = bindings;
+            return Flux.deferContextual(context -> {
+                Observation observation = observation(QUERY, context);
+                if (!observation.isNoop()) {
+                    // the SQL is only sanitized when it is recorded
+                    observation.highCardinalityKeyValue(KEY_STATEMENT, statement(sql))
+                            .highCardinalityKeyValue(KEY_BINDINGS, String.valueOf(count));
+                }
+                return Flux.<Result>from(super.execute())
+                        .<Result>map(result -> new ObservationResult(result, observation))
+                        .doOnError(observation::error)
+                        .doFinally(signal -> observation.stop())
+                        .contextWrite(ctx -> ctx.put(OBSERVATION_KEY, observation));
+            });
+        }
+    }
+
+    /**
+     * Observes the consumption of a result.
+     */
+    private final class ObservationResult extends DelegatingResult {
+
+        private final Observation parent;
+
+        ObservationResult(Result delegate, Observation parent) {
+            super(delegate);
+            this.parent = parent;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return Mono.defer(() -> {
+                Observation observation = observation();
+                return Mono.from(super.getRowsUpdated())
+                        .doOnNext(rows -> observation.highCardinalityKeyValue(KEY_ROWS, String.valueOf(rows)))
+                        .doOnError(observation::error)
+                        .doFinally(signal -> observation.stop());
+            });
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return observeRows(() -> super.map(mappingFunction));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return observeRows(() -> super.map(mappingFunction));
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return new ObservationResult(super.filter(filter), parent);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return observeRows(() -> super.flatMap(mappingFunction));
+        }
+
+        private <T> Flux<T> observeRows(Supplier<Publisher<T>> rows) {
+            return Flux.defer(() -> {
+                Observation observation = observation();
+                AtomicLong count = new AtomicLong();
+                return Flux.from(rows.get())
+                        .doOnNext(row -> count.incrementAndGet())
+                        .doOnError(observation::error)
+                        .doFinally(signal -> observation.highCardinalityKeyValue(KEY_ROWS, String.valueOf(count.get())).stop());
+            });
+        }
+
+        private Observation observation() {
+            return Observation.createNotStarted(RESULT, registry)
+                    .parentObservation(parent)
+                    .lowCardinalityKeyValue(KEY_NAME, name)
+                    .lowCardinalityKeyValue(KEY_SYSTEM, system)
+                    .start();
+        }
+    }
+}
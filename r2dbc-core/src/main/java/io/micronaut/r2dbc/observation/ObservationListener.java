@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.observation;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.r2dbc.config.R2dbcObservationConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.inject.Singleton;
+
+import java.util.Optional;
+
+/**
+ * Wraps the {@link ConnectionFactory} of a datasource with observations enabled in an
+ * {@link ObservationConnectionFactory}. Runs after the other decorating listeners, but before the read/write
+ * routing, so that the acquisition observation includes the time spent waiting for the pool.
+ *
+ * @since 5.7.0
+ */
+@Internal
+@Singleton
+@Requires(classes = ObservationRegistry.class)
+final class ObservationListener implements BeanCreatedEventListener<ConnectionFactory>, Ordered {
+
+    /**
+     * The order of the listener.
+     */
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 200;
+
+    @Override
+    public ConnectionFactory onCreated(BeanCreatedEvent<ConnectionFactory> event) {
+        String name = event.getBeanIdentifier().getName();
+        BeanContext beanContext = event.getSource();
+        Optional<R2dbcObservationConfiguration> configuration = beanContext.findBean(R2dbcObservationConfiguration.class, Qualifiers.byName(name));
+        if (configuration.isEmpty() || !configuration.get().isEnabled()) {
+            return event.getBean();
+        }
+        ObservationRegistry registry = beanContext.findBean(ObservationRegistry.class).orElse(ObservationRegistry.NOOP);
+        return new ObservationConnectionFactory(event.getBean(), name, registry, configuration.get());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+/**
+ * The priority of a connection acquisition, when the number of pending acquisitions of the pool is bounded. Pending
+ * {@link #HIGH} acquisitions are served before the {@link #NORMAL} ones, and each priority has its own bound.
+ *
+ * @see R2dbcConnectionPool#withPriority(reactor.util.context.Context, AcquirePriority)
+ * @since 5.7.0
+ */
+public enum AcquirePriority {
+
+    /**
+     * The priority of health checks and critical paths.
+     */
+    HIGH,
+
+    /**
+     * The default priority.
+     */
+    NORMAL
+}
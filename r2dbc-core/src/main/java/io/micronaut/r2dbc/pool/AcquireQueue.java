@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits at most as many acquisitions as the limit, the size of the pool unless it is adaptive, and queues the others
+ * by priority, each queue bounded to the configured maximum. Permits are released when the acquisition fails or the
+ * connection is closed.
+ */
+final class AcquireQueue {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String name;
+    private final int maxPending;
+    private final Map<AcquirePriority, Deque<Waiter>> waiters = new EnumMap<>(AcquirePriority.class);
+    private int limit;
+    private int inUse;
+
+    AcquireQueue(String name, int limit, int maxPending) {
+        this.name = name;
+        this.limit = limit;
+        this.maxPending = maxPending;
+        for (AcquirePriority priority : AcquirePriority.values()) {
+            waiters.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @param priority The priority of the acquisition
+     * @return A mono completing once a permit is granted, or failing with a {@link PendingAcquireLimitExceededException}
+     */
+    Mono<Void> acquire(AcquirePriority priority) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            boolean rejected = false;
+            synchronized (this) {
+                if (inUse < limit && isEmpty()) {
+                    inUse++;
+                    waiter.state.set(GRANTED);
+                } else if (waiters.get(priority).size() < maxPending) {
+                    waiters.get(priority).add(waiter);
+                } else {
+                    rejected = true;
+                }
+            }
+            if (rejected) {
+                sink.error(new PendingAcquireLimitExceededException(name, priority, maxPending));
+                return;
+            }
+            sink.onCancel(() -> cancel(waiter, priority));
+            if (waiter.state.get() == GRANTED) {
+                sink.success();
+            }
+        });
+    }
+
+    /**
+     * Releases a permit, granting it to the oldest waiter of the highest priority.
+     */
+    void release() {
+        synchronized (this) {
+            inUse--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Changes the number of permits, granting the new permits to the waiters.
+     *
+     * @param limit The number of permits
+     */
+    void setLimit(int limit) {
+        synchronized (this) {
+            this.limit = limit;
+        }
+        dispatch();
+    }
+
+    /**
+     * @return The number of permits
+     */
+    synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return The number of permits in use
+     */
+    synchronized int getInUse() {
+        return inUse;
+    }
+
+    /**
+     * @param priority The priority
+     * @return The number of acquisitions of the priority waiting for a permit
+     */
+    synchronized int getPending(AcquirePriority priority) {
+        return waiters.get(priority).size();
+    }
+
+    private void cancel(Waiter waiter, AcquirePriority priority) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                waiters.get(priority).remove(waiter);
+            }
+        } else {
+            // granted concurrently with the cancellation
+            release();
+        }
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            while (inUse < limit) {
+                Waiter next = poll();
+                if (next == null) {
+                    break;
+                }
+                if (next.state.compareAndSet(WAITING, GRANTED)) {
+                    inUse++;
+                    granted.add(next);
+                }
+            }
+        }
+        granted.forEach(waiter -> waiter.sink.success());
+    }
+
+    private boolean isEmpty() {
+        for (Deque<Waiter> queue : waiters.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Waiter poll() {
+        for (Deque<Waiter> queue : waiters.values()) {
+            Waiter waiter = queue.poll();
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An acquisition waiting for a permit.
+     */
+    private static final class Waiter {
+
+        private final MonoSink<Void> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+}
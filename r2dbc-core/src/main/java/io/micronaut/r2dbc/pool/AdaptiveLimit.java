@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+/**
+ * A concurrency limit adapted to the observed latency with the gradient algorithm: the limit is scaled by the ratio
+ * between the long-term average latency and the latency of each sample, so it shrinks as soon as the database queues
+ * the executions, and otherwise grows by the square root of the limit, the queue tolerated at the database.
+ */
+final class AdaptiveLimit {
+
+    private static final double LONG_TERM_ALPHA = 2.0 / 601;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private double limit;
+    private double longTermRtt;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = clamp(initialLimit);
+    }
+
+    /**
+     * @param rttNanos The latency of the sample
+     * @param inFlight The number of connections in use
+     * @return The new limit
+     */
+    synchronized int onSample(long rttNanos, int inFlight) {
+        longTermRtt = longTermRtt == 0 ? rttNanos : longTermRtt * (1 - LONG_TERM_ALPHA) + rttNanos * LONG_TERM_ALPHA;
+        if (inFlight < limit / 2) {
+            // the application does not use the limit, the sample says nothing about it
+            return (int) limit;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longTermRtt / Math.max(1, rttNanos)));
+        double next = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - SMOOTHING) + next * SMOOTHING);
+        return (int) limit;
+    }
+
+    /**
+     * @return The new limit, after a failed acquisition
+     */
+    synchronized int onFailure() {
+        limit = clamp(limit * FAILURE_BACKOFF);
+        return (int) limit;
+    }
+
+    /**
+     * @return The current limit
+     */
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.time.Duration;
+
+/**
+ * Receives the events of a {@link R2dbcConnectionPool}. Listeners are invoked on the thread emitting the event
+ * and must not block.
+ *
+ * @since 5.7.0
+ */
+public interface ConnectionPoolListener {
+
+    /**
+     * Invoked when a connection was acquired from the pool.
+     *
+     * @param duration The time spent acquiring the connection
+     */
+    default void onAcquire(@NonNull Duration duration) {
+    }
+
+    /**
+     * Invoked when acquiring a connection from the pool failed.
+     *
+     * @param duration The time spent before the acquisition failed
+     * @param throwable The failure
+     */
+    default void onAcquireFailure(@NonNull Duration duration, @NonNull Throwable throwable) {
+    }
+
+    /**
+     * Invoked when an acquisition was rejected because the pending acquisitions of its priority reached the maximum.
+     */
+    default void onAcquireRejected() {
+    }
+
+    /**
+     * Invoked when the pool opened a new connection to the database.
+     */
+    default void onConnectionCreated() {
+    }
+
+    /**
+     * Invoked when the pool closed a connection to the database.
+     */
+    default void onConnectionClosed() {
+    }
+
+    /**
+     * Invoked when an acquired connection was held longer than the leak detection threshold without being closed.
+     *
+     * @param held The time the connection has been held
+     * @param closed Whether the connection was closed by the pool
+     */
+    default void onLeakSuspected(@NonNull Duration held, boolean closed) {
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Parameter;
+import io.micronaut.context.exceptions.BeanContextException;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcWarmupConfiguration;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.LazyConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Opens the configured number of connections of a datasource while the application context starts, so the first
+ * requests do not pay the cost of the connection setup. The warm-ups of the datasources run in parallel on startup,
+ * before the server starts accepting traffic and reporting readiness.
+ *
+ * <p>When the number of connections is not set, the pool opens its initial size with {@link ConnectionPool#warmup()}.
+ * A {@link LazyConnectionFactory lazy} datasource is not warmed up on startup, which would create its connection
+ * factory, but in the background once its connection factory is created by the first acquisition.</p>
+ *
+ * @see R2dbcWarmupConfiguration
+ * @since 5.7.0
+ */
+@EachBean(ConnectionFactory.class)
+public class ConnectionPoolWarmup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolWarmup.class);
+
+    private final String name;
+    private final ConnectionFactory connectionFactory;
+    private final R2dbcWarmupConfiguration configuration;
+    private final int requested;
+    private final boolean lazy;
+    private volatile int connections;
+    private volatile Duration duration;
+    private volatile int warmedUp;
+
+    /**
+     * @param name The name of the datasource
+     * @param connectionFactory The connection factory
+     * @param configuration The warm-up configuration
+     * @param poolConfiguration The pool configuration
+     */
+    public ConnectionPoolWarmup(@Parameter String name,
+                                @Parameter ConnectionFactory connectionFactory,
+                                @Parameter @Nullable R2dbcWarmupConfiguration configuration,
+                                @Parameter @Nullable R2dbcPoolConfiguration poolConfiguration) {
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.configuration = configuration != null ? configuration : new R2dbcWarmupConfiguration();
+        this.requested = this.configuration.getConnections() > 0 || poolConfiguration == null
+                ? this.configuration.getConnections() : poolConfiguration.getInitialSize();
+        LazyConnectionFactory lazyConnectionFactory = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory.class)
+                .filter(factory -> !factory.isInitialized())
+                .orElse(null);
+        this.lazy = lazyConnectionFactory != null;
+        if (lazy && this.configuration.isEnabled()) {
+            lazyConnectionFactory.whenInitialized(initialized -> warmup(initialized, false)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe());
+        }
+    }
+
+    /**
+     * @return The duration of the warm-up, if it ran
+     */
+    public @Nullable Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return The number of connections opened by the warm-up
+     */
+    public int getConnections() {
+        return warmedUp;
+    }
+
+    /**
+     * @return The name of the datasource
+     */
+    public @NonNull String getName() {
+        return name;
+    }
+
+    /**
+     * @return Whether the warm-up is enabled for the datasource on startup, which is not the case of lazy datasources
+     */
+    public boolean isEnabled() {
+        return configuration.isEnabled() && !lazy;
+    }
+
+    /**
+     * Runs the warm-up if it is enabled for the datasource. Errors only if the warm-up fails and is configured to
+     * fail fast.
+     *
+     * @return A publisher completing once the connections are opened and returned to the pool
+     */
+    @NonNull Mono<Void> warmup() {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+        return warmup(connectionFactory, configuration.isFailFast());
+    }
+
+    private Mono<Void> warmup(ConnectionFactory connectionFactory, boolean failFast) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            ConnectionPool pool = DelegatingConnectionFactory.find(connectionFactory, ConnectionPool.class).orElse(null);
+            int maxSize = pool != null ? pool.getMetrics().map(PoolMetrics::getMaxAllocatedSize).orElse(1) : 1;
+            connections = Math.max(1, Math.min(requested, maxSize));
+            Mono<Integer> opened;
+            if (pool != null && configuration.getConnections() == 0) {
+                opened = warmupPool(pool, failFast);
+            } else {
+                opened = Mono.usingWhen(
+                        Mono.fromSupplier(ConcurrentLinkedQueue<Connection>::new),
+                        acquired -> open(connectionFactory, acquired, failFast),
+                        this::release,
+                        (acquired, throwable) -> release(acquired),
+                        this::release
+                );
+            }
+            return opened
+                    .doOnNext(count -> warmedUp = count)
+                    .then()
+                    .onErrorResume(e -> {
+                        if (failFast) {
+                            return Mono.error(new BeanContextException("Warm-up of R2DBC datasource [" + name + "] failed: " + e.getMessage(), e));
+                        }
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn("Warm-up of R2DBC datasource [{}] failed: {}", name, e.getMessage(), e);
+                        }
+                        return Mono.empty();
+                    })
+                    .then(Mono.fromRunnable(() -> {
+                        duration = Duration.ofNanos(System.nanoTime() - start);
+                        if (LOG.isInfoEnabled()) {
+                            LOG.info("Warmed up {} of {} connections of R2DBC datasource [{}] in {}ms", warmedUp, connections, name, duration.toMillis());
+                        }
+                    }));
+        });
+    }
+
+    /**
+     * Opens the initial size of the pool, the connections staying idle in the pool.
+     */
+    private Mono<Integer> warmupPool(ConnectionPool pool, boolean failFast) {
+        Mono<Integer> warmup = pool.warmup();
+        if (failFast) {
+            warmup = warmup.timeout(configuration.getTimeout());
+        } else {
+            warmup = warmup.timeout(configuration.getTimeout(), Mono.empty());
+        }
+        return warmup.then(Mono.fromSupplier(() -> pool.getMetrics().map(PoolMetrics::allocatedSize).orElse(0)));
+    }
+
+    private Mono<Integer> open(ConnectionFactory connectionFactory, Queue<Connection> acquired, boolean failFast) {
+        Flux<Connection> opened = Flux.range(0, connections)
+                .flatMap(i -> acquire(connectionFactory, failFast), configuration.getConcurrency());
+        if (!failFast) {
+            opened = opened.take(configuration.getTimeout());
+        }
+        Mono<Void> warmup = opened.doOnNext(acquired::add).then();
+        if (failFast) {
+            // the timeout bounds the whole warm-up, not the wait between two connections
+            warmup = warmup.timeout(configuration.getTimeout());
+        }
+        return warmup.then(Mono.fromSupplier(acquired::size));
+    }
+
+    private Mono<Connection> acquire(ConnectionFactory connectionFactory, boolean failFast) {
+        Mono<Connection> connection = Mono.from(connectionFactory.create());
+        if (failFast) {
+            return connection;
+        }
+        return connection.onErrorResume(e -> {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Warm-up of R2DBC datasource [{}] could not open a connection: {}", name, e.getMessage(), e);
+            }
+            return Mono.empty();
+        });
+    }
+
+    private Mono<Void> release(Queue<Connection> acquired) {
+        return Flux.fromIterable(acquired)
+                .flatMap(Connection::close)
+                .then();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.r2dbc.config.R2dbcStartupConfiguration;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Runs the {@link ConnectionPoolWarmup warm-ups} of the datasources on startup, with a bounded number of them in
+ * parallel, so the startup takes about as long as the slowest warm-up rather than the sum of them. The startup event
+ * is published before the server starts, so the server only accepts traffic once the warm-ups are done.
+ *
+ * @see R2dbcStartupConfiguration
+ * @since 5.7.0
+ */
+@Internal
+@Singleton
+final class ConnectionPoolWarmupListener implements ApplicationEventListener<StartupEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPoolWarmupListener.class);
+
+    private final List<ConnectionPoolWarmup> warmups;
+    private final int parallelism;
+
+    /**
+     * @param warmups The warm-ups of the datasources
+     * @param configuration The startup configuration
+     */
+    ConnectionPoolWarmupListener(List<ConnectionPoolWarmup> warmups, R2dbcStartupConfiguration configuration) {
+        this.warmups = warmups.stream().filter(ConnectionPoolWarmup::isEnabled).toList();
+        this.parallelism = configuration.getParallelism();
+    }
+
+    @Override
+    public void onApplicationEvent(StartupEvent event) {
+        if (warmups.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Flux.fromIterable(warmups)
+                // drivers opening connections on the subscribing thread would otherwise warm up one after the other
+                .flatMap(warmup -> warmup.warmup().subscribeOn(Schedulers.boundedElastic()), parallelism)
+                .then()
+                .block();
+        if (LOG.isInfoEnabled()) {
+            StringJoiner timings = new StringJoiner(", ", "[", "]");
+            for (ConnectionPoolWarmup warmup : warmups) {
+                timings.add(warmup.getName() + "=" + (warmup.getDuration() != null ? warmup.getDuration().toMillis() + "ms" : "n/a"));
+            }
+            LOG.info("Warmed up {} R2DBC datasources in {}ms: {}", warmups.size(), (System.nanoTime() - start) / 1_000_000, timings);
+        }
+    }
+}
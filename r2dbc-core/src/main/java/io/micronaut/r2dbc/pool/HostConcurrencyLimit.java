@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The maximum number of connections to a database host, shared by the datasources of the same host and port.
+ * Adaptive pools claim from it the connections their limit grows by, and return them when their limit shrinks. The
+ * {@link HostLimitedConnectionFactory connection factories} of the other datasources take a permit for each connection
+ * they open, and return it when the connection is closed.
+ *
+ * <p>The permits are counted with atomic operations and the openings waiting for a permit are queued in a lock-free
+ * queue, in first-in first-out order. Permits are handed to the waiters by a single thread at a time, the others only
+ * signal that there is work left. While openings wait, the connection factories are asked to close one of their idle
+ * pooled connections per waiting opening, so that the idle pool of a datasource does not starve another one.</p>
+ *
+ * @since 5.7.0
+ */
+public final class HostConcurrencyLimit {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final String host;
+    private final AtomicInteger maxSize;
+    private final AtomicInteger available;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger nextReclaimer = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final List<BooleanSupplier> reclaimers = new CopyOnWriteArrayList<>();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param host The host and port of the database
+     * @param maxSize The maximum number of connections
+     */
+    public HostConcurrencyLimit(@NonNull String host, int maxSize) {
+        this.host = host;
+        this.maxSize = new AtomicInteger(maxSize);
+        this.available = new AtomicInteger(maxSize);
+    }
+
+    /**
+     * @return The host and port of the database
+     */
+    public @NonNull String getHost() {
+        return host;
+    }
+
+    /**
+     * @return The maximum number of connections
+     */
+    public int getMaxSize() {
+        return maxSize.get();
+    }
+
+    /**
+     * @return The number of connections claimed by the adaptive pools, or open or being opened by the other datasources
+     */
+    public int getAllocated() {
+        return maxSize.get() - available.get();
+    }
+
+    /**
+     * @return The number of openings waiting for a permit
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return The number of openings that had to wait for a permit
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    /**
+     * Lowers the maximum number of connections, if the given maximum is lower. Connections beyond the new maximum are
+     * not closed, but new ones wait until enough are closed.
+     *
+     * @param maxSize The maximum number of connections
+     */
+    public void restrict(int maxSize) {
+        int current = this.maxSize.get();
+        while (maxSize < current) {
+            if (this.maxSize.compareAndSet(current, maxSize)) {
+                available.addAndGet(maxSize - current);
+                return;
+            }
+            current = this.maxSize.get();
+        }
+    }
+
+    /**
+     * Resizes the limit of an adaptive pool, within the connections left to claim. The waiting openings go first.
+     *
+     * @param current The current limit of the pool
+     * @param desired The desired limit of the pool
+     * @param minimum The minimum limit of the pool, granted even beyond the maximum
+     * @return The granted limit
+     */
+    public int resize(int current, int desired, int minimum) {
+        if (desired <= current) {
+            int granted = Math.max(desired, minimum);
+            if (granted != current) {
+                available.addAndGet(current - granted);
+                drain();
+            }
+            return granted;
+        }
+        while (true) {
+            int before = available.get();
+            int free = queued.get() > 0 ? 0 : before;
+            int granted = Math.max(current + Math.max(0, Math.min(desired - current, free)), minimum);
+            int claimed = granted - current;
+            if (claimed == 0 || available.compareAndSet(before, before - claimed)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * Registers a function closing an idle connection to the host, called while openings wait for a permit.
+     *
+     * @param reclaimer A function closing an idle connection, returning whether one was closed
+     */
+    public void addReclaimer(@NonNull BooleanSupplier reclaimer) {
+        reclaimers.add(reclaimer);
+    }
+
+    /**
+     * Takes a permit, waiting for one if none is available. Cancelling the returned publisher while it waits leaves
+     * the queue.
+     *
+     * @param timeout The maximum time to wait for a permit, unbounded if null
+     * @return A mono completing once a permit is taken, or failing with a {@link R2dbcTimeoutException} once the
+     * timeout elapsed
+     */
+    public @NonNull Mono<Void> acquire(@Nullable Duration timeout) {
+        Mono<Void> acquire = Mono.create(sink -> {
+            // queued openings go first, so a permit is only taken directly if none waits
+            if (waiters.isEmpty() && tryAcquire()) {
+                sink.success();
+                return;
+            }
+            Waiter waiter = new Waiter(sink);
+            throttled.increment();
+            queued.incrementAndGet();
+            waiters.offer(waiter);
+            sink.onCancel(() -> cancel(waiter));
+            drain();
+            if (waiter.state.get() == WAITING) {
+                reclaim();
+            }
+        });
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return acquire;
+        }
+        return acquire.timeout(timeout, Mono.error(() -> new R2dbcTimeoutException(
+                "Timed out after " + timeout.toMillis() + "ms waiting for a connection to database host [" + host + "], limited to " + maxSize.get() + " connections")));
+    }
+
+    /**
+     * Returns a permit, handing it to the oldest waiter if any.
+     */
+    public void release() {
+        available.incrementAndGet();
+        drain();
+    }
+
+    private boolean tryAcquire() {
+        int current = available.get();
+        while (current > 0) {
+            if (available.compareAndSet(current, current - 1)) {
+                return true;
+            }
+            current = available.get();
+        }
+        return false;
+    }
+
+    private void reclaim() {
+        int count = reclaimers.size();
+        int start = nextReclaimer.getAndIncrement();
+        for (int i = 0; i < count; i++) {
+            if (reclaimers.get(Math.floorMod(start + i, count)).getAsBoolean()) {
+                return;
+            }
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            queued.decrementAndGet();
+            waiters.remove(waiter);
+        } else {
+            // granted concurrently with the cancellation
+            release();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            for (Waiter next = waiters.peek(); next != null; next = waiters.peek()) {
+                if (next.state.get() != WAITING) {
+                    waiters.remove(next);
+                    continue;
+                }
+                if (!tryAcquire()) {
+                    break;
+                }
+                // removed by identity, the waiter may have left the queue since it was peeked
+                if (waiters.remove(next) && next.state.compareAndSet(WAITING, GRANTED)) {
+                    queued.decrementAndGet();
+                    next.sink.success();
+                } else {
+                    // cancelled since it was peeked
+                    available.incrementAndGet();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * An opening waiting for a permit.
+     */
+    private static final class Waiter {
+
+        private final MonoSink<Void> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Void> sink) {
+            this.sink = sink;
+        }
+    }
+}
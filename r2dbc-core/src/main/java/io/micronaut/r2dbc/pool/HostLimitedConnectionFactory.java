@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A driver {@link ConnectionFactory} that opens connections within the permits of the {@link HostConcurrencyLimit}
+ * of its database host, waiting at most the acquire timeout for a permit. The permit of a connection is returned when
+ * the connection is closed, or when opening it fails or is cancelled.
+ *
+ * <p>While other datasources of the host wait for a permit, the connection idle the longest in the pool of this
+ * factory is closed to return its permit. The pool discards it on its next acquisition, as it no longer validates.</p>
+ *
+ * @since 5.7.0
+ */
+public class HostLimitedConnectionFactory extends DelegatingConnectionFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HostLimitedConnectionFactory.class);
+
+    private static final int LEASED = 0;
+    private static final int IDLE = 1;
+    private static final int RECLAIMED = 2;
+
+    private final HostConcurrencyLimit limit;
+    private final Duration acquireTimeout;
+    private final Set<HostLimitedConnection> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param delegate The driver connection factory
+     * @param limit The limit of the database host
+     * @param acquireTimeout The maximum time to wait for a permit, unbounded if null
+     */
+    public HostLimitedConnectionFactory(@NonNull ConnectionFactory delegate,
+                                        @NonNull HostConcurrencyLimit limit,
+                                        @Nullable Duration acquireTimeout) {
+        super(delegate);
+        this.limit = limit;
+        this.acquireTimeout = acquireTimeout;
+        limit.addReclaimer(this::reclaimIdle);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return limit.acquire(acquireTimeout).then(Mono.defer(() -> {
+            AtomicBoolean opened = new AtomicBoolean();
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    limit.release();
+                }
+            };
+            return Mono.<Connection>from(super.create())
+                    .<Connection>map(connection -> {
+                        opened.set(true);
+                        HostLimitedConnection limited = new HostLimitedConnection(connection, release);
+                        connections.add(limited);
+                        return limited;
+                    })
+                    .doOnSuccess(connection -> {
+                        if (connection == null) {
+                            release.run();
+                        }
+                    })
+                    .doOnError(e -> release.run())
+                    .doOnCancel(() -> {
+                        // the permit of an opened connection is returned by closing it
+                        if (!opened.get()) {
+                            release.run();
+                        }
+                    });
+        }));
+    }
+
+    /**
+     * @return The limit of the database host
+     */
+    public @NonNull HostConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    /**
+     * Marks a connection acquired from a pool as leased, unless it was reclaimed while it was idle.
+     *
+     * @param connection The pooled connection
+     * @return Whether the connection can be used
+     */
+    static boolean lease(Connection connection) {
+        HostLimitedConnection limited = find(connection);
+        return limited == null || limited.state.compareAndSet(IDLE, LEASED) || limited.state.get() == LEASED;
+    }
+
+    /**
+     * Marks a connection released to a pool as idle, so that it can be reclaimed.
+     *
+     * @param connection The pooled connection
+     */
+    static void idle(Connection connection) {
+        HostLimitedConnection limited = find(connection);
+        if (limited != null) {
+            limited.idleSince = System.nanoTime();
+            limited.state.compareAndSet(LEASED, IDLE);
+        }
+    }
+
+    private static HostLimitedConnection find(Connection connection) {
+        Object current = connection;
+        while (current != null) {
+            if (current instanceof HostLimitedConnection limited) {
+                return limited;
+            }
+            Object next = current instanceof Wrapped<?> wrapped ? wrapped.unwrap() : null;
+            current = next != current ? next : null;
+        }
+        return null;
+    }
+
+    /**
+     * Closes the connection idle the longest, to return its permit to the datasources waiting for one.
+     */
+    private boolean reclaimIdle() {
+        HostLimitedConnection oldest = null;
+        for (HostLimitedConnection connection : connections) {
+            if (connection.state.get() == IDLE && (oldest == null || connection.idleSince - oldest.idleSince < 0)) {
+                oldest = connection;
+            }
+        }
+        if (oldest == null || !oldest.state.compareAndSet(IDLE, RECLAIMED)) {
+            return false;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Closing an idle connection to database host [{}] for a datasource waiting for one", limit.getHost());
+        }
+        Mono.from(oldest.closeConnection()).subscribe(null, e -> {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Failed to close a reclaimed connection to database host [{}]: {}", limit.getHost(), e.getMessage());
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Returns the permit of the connection once closed.
+     */
+    private final class HostLimitedConnection extends DelegatingConnection {
+
+        private final Runnable release;
+        private final AtomicInteger state = new AtomicInteger(LEASED);
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile long idleSince;
+
+        HostLimitedConnection(Connection delegate, Runnable release) {
+            super(delegate);
+            this.release = release;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return closeConnection();
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            if (state.get() == RECLAIMED) {
+                return Mono.just(false);
+            }
+            return super.validate(depth);
+        }
+
+        Publisher<Void> closeConnection() {
+            if (!closed.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            connections.remove(this);
+            return Mono.from(super.close()).doFinally(signal -> release.run());
+        }
+    }
+}
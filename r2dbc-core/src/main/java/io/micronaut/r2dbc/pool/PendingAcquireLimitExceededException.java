@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.r2dbc.spi.R2dbcTransientResourceException;
+
+/**
+ * Thrown when a connection is acquired while the pending acquisitions of the pool with the same priority already
+ * reached the configured maximum, so the overload of the database is shed instead of queued.
+ *
+ * @since 5.7.0
+ */
+public final class PendingAcquireLimitExceededException extends R2dbcTransientResourceException {
+
+    /**
+     * @param name The name of the datasource
+     * @param priority The priority of the rejected acquisition
+     * @param maxPending The maximum number of pending acquisitions
+     */
+    public PendingAcquireLimitExceededException(String name, AcquirePriority priority, int maxPending) {
+        super("Connection pool of R2DBC datasource [" + name + "] already has " + maxPending
+                + " pending acquisitions of priority " + priority);
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.pool;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.r2dbc.config.R2dbcAdaptivePoolConfiguration;
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration;
+import io.micronaut.r2dbc.routing.FailoverConnectionFactory;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * A {@link ConnectionPool} of a named datasource that publishes its events to {@link ConnectionPoolListener}s.
+ *
+ * <p>When a {@link R2dbcPoolConfiguration#getLeakDetectionThreshold() leak detection threshold} is configured, the
+ * acquired connections are tracked until they are closed, and a background task reports the connections held longer
+ * than the threshold, with the stack trace of their acquisition if it was sampled, and optionally closes them.</p>
+ *
+ * <p>When a {@link R2dbcPoolConfiguration#getMaxPendingAcquire() maximum of pending acquisitions} is configured, the
+ * acquisitions waiting for a connection are queued by {@link AcquirePriority priority}, and an acquisition is rejected
+ * immediately with a {@link PendingAcquireLimitExceededException} when the queue of its priority is full. The priority
+ * of an acquisition is set in the subscriber context:</p>
+ *
+ * <pre>{@code
+ * Mono.from(connectionFactory.create())
+ *     .contextWrite(context -> R2dbcConnectionPool.withPriority(context, AcquirePriority.HIGH))
+ * }</pre>
+ *
+ * <p>When {@link R2dbcAdaptivePoolConfiguration adaptive sizing} is enabled, the number of connections in use at
+ * once is adapted between the minimum size and the max size to the time the connections are held, shrinking as soon
+ * as the database slows down and growing back otherwise, within the limit shared with the other adaptive pools of the
+ * same database host.</p>
+ *
+ * @since 5.7.0
+ */
+public class R2dbcConnectionPool extends ConnectionPool {
+
+    /**
+     * The key of the Reactor context entry holding the {@link AcquirePriority} of the acquisitions.
+     */
+    public static final String PRIORITY = R2dbcConnectionPool.class.getName() + ".PRIORITY";
+
+    private static final Logger LOG = LoggerFactory.getLogger(R2dbcConnectionPool.class);
+
+    private static final Duration MIN_LEAK_DETECTION_INTERVAL = Duration.ofMillis(100);
+    private static final int MAX_RECLAIMED_RETRIES = 3;
+
+    private final String name;
+    private final List<ConnectionPoolListener> listeners;
+    private final Duration maxAcquireTime;
+    private final Duration leakDetectionThreshold;
+    private final double leakDetectionSampleRate;
+    private final boolean leakDetectionForceClose;
+    private final Set<AcquiredConnection> acquired = ConcurrentHashMap.newKeySet();
+    private final Disposable leakDetection;
+    private final AcquireQueue acquireQueue;
+    private final AdaptiveLimit adaptiveLimit;
+    private final HostConcurrencyLimit hostLimit;
+    private final boolean hostLimited;
+    private final int maxSize;
+    private final int minLimit;
+
+    /**
+     * @param name The name of the datasource
+     * @param configuration The pool configuration
+     * @param poolConfiguration The configuration of the datasource pool, for the settings not supported by R2DBC Pool
+     * @param adaptiveConfiguration The adaptive sizing configuration, if any
+     * @param hostLimit The limit of the database host shared with the other adaptive pools, if any
+     * @param hostLimited Whether the connections are opened by a {@link HostLimitedConnectionFactory}, whose idle
+     * connections may be reclaimed for other datasources
+     * @param listeners The listeners, shared with the connection factory of the configuration
+     */
+    protected R2dbcConnectionPool(@NonNull String name,
+                                  @NonNull ConnectionPoolConfiguration configuration,
+                                  @NonNull R2dbcPoolConfiguration poolConfiguration,
+                                  @Nullable R2dbcAdaptivePoolConfiguration adaptiveConfiguration,
+                                  @Nullable HostConcurrencyLimit hostLimit,
+                                  boolean hostLimited,
+                                  @NonNull List<ConnectionPoolListener> listeners) {
+        super(configuration);
+        this.name = name;
+        this.listeners = listeners;
+        this.hostLimited = hostLimited;
+        this.maxAcquireTime = poolConfiguration.getMaxAcquireTime();
+        this.leakDetectionThreshold = poolConfiguration.getLeakDetectionThreshold();
+        this.leakDetectionSampleRate = poolConfiguration.getLeakDetectionSampleRate();
+        this.leakDetectionForceClose = poolConfiguration.isLeakDetectionForceClose();
+        if (leakDetectionThreshold != null) {
+            long interval = Math.max(leakDetectionThreshold.toNanos() / 2, MIN_LEAK_DETECTION_INTERVAL.toNanos());
+            this.leakDetection = Schedulers.parallel().schedulePeriodically(this::detectLeaks, interval, interval, TimeUnit.NANOSECONDS);
+        } else {
+            this.leakDetection = null;
+        }
+        this.maxSize = poolConfiguration.getMaxSize();
+        boolean adaptive = adaptiveConfiguration != null && adaptiveConfiguration.isEnabled();
+        Integer maxPendingAcquire = poolConfiguration.getMaxPendingAcquire();
+        if (adaptive) {
+            this.minLimit = Math.min(adaptiveConfiguration.getMinSize(), maxSize);
+            this.adaptiveLimit = new AdaptiveLimit(Math.min(poolConfiguration.getInitialSize(), maxSize), minLimit, maxSize,
+                    adaptiveConfiguration.getTolerance());
+            this.hostLimit = hostLimit;
+            int limit = adaptiveLimit.getLimit();
+            if (hostLimit != null) {
+                limit = hostLimit.resize(0, limit, minLimit);
+            }
+            this.acquireQueue = new AcquireQueue(name, limit, maxPendingAcquire != null ? maxPendingAcquire : Integer.MAX_VALUE);
+        } else {
+            this.minLimit = maxSize;
+            this.adaptiveLimit = null;
+            this.hostLimit = null;
+            this.acquireQueue = maxPendingAcquire != null ? new AcquireQueue(name, maxSize, maxPendingAcquire) : null;
+        }
+    }
+
+    /**
+     * @return The name of the datasource
+     */
+    public @NonNull String getName() {
+        return name;
+    }
+
+    /**
+     * Registers a listener for the events of this pool.
+     *
+     * @param listener The listener
+     */
+    public void addListener(@NonNull ConnectionPoolListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener previously registered with {@link #addListener(ConnectionPoolListener)}.
+     *
+     * @param listener The listener
+     */
+    public void removeListener(@NonNull ConnectionPoolListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return The number of acquired connections currently held longer than the leak detection threshold
+     */
+    public int getSuspectedLeaks() {
+        int leaks = 0;
+        for (AcquiredConnection connection : acquired) {
+            if (connection.reported) {
+                leaks++;
+            }
+        }
+        return leaks;
+    }
+
+    /**
+     * @return The number of connections that can be in use at once, adapted to the latency if adaptive sizing is enabled
+     */
+    public int getConcurrencyLimit() {
+        return adaptiveLimit != null ? acquireQueue.getLimit() : maxSize;
+    }
+
+    /**
+     * @return The limit of the database host the adaptive pool claims its connections from, if any
+     */
+    public @Nullable HostConcurrencyLimit getHostLimit() {
+        return hostLimit;
+    }
+
+    /**
+     * @param priority The priority
+     * @return The number of acquisitions of the priority queued for a connection, 0 if the pending acquisitions are not bounded
+     */
+    public int getQueuedAcquisitions(@NonNull AcquirePriority priority) {
+        return acquireQueue != null ? acquireQueue.getPending(priority) : 0;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        // captured on assembly, where the stack trace still shows the code acquiring the connection
+        Throwable acquisition = leakDetection != null && ThreadLocalRandom.current().nextDouble() < leakDetectionSampleRate
+                ? new Throwable("Connection acquisition") : null;
+        if (acquireQueue == null) {
+            return acquire(acquisition, false);
+        }
+        Mono<Connection> connection = Mono.deferContextual(context -> acquireQueue.acquire(context.getOrDefault(PRIORITY, AcquirePriority.NORMAL)))
+                .doOnError(PendingAcquireLimitExceededException.class,
+                        e -> notifyListeners(listeners, ConnectionPoolListener::onAcquireRejected))
+                .then(acquire(acquisition, true));
+        if (maxAcquireTime == null) {
+            return connection;
+        }
+        // the time queued for a permit counts towards the max acquire time, R2DBC Pool only bounds its own acquisition
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return connection.timeout(maxAcquireTime, Mono.error(() -> {
+                Duration duration = Duration.ofNanos(System.nanoTime() - start);
+                R2dbcTimeoutException timeout = new R2dbcTimeoutException("Connection acquisition timed out after " + maxAcquireTime.toMillis() + "ms");
+                notifyListeners(listeners, listener -> listener.onAcquireFailure(duration, timeout));
+                return timeout;
+            }));
+        });
+    }
+
+    /**
+     * Sets the priority of the connection acquisitions of a reactive pipeline.
+     *
+     * @param context The subscriber context
+     * @param priority The priority
+     * @return The context with the priority
+     */
+    public static @NonNull Context withPriority(@NonNull Context context, @NonNull AcquirePriority priority) {
+        return context.put(PRIORITY, priority);
+    }
+
+    @Override
+    public Mono<Void> disposeLater() {
+        if (leakDetection != null) {
+            leakDetection.dispose();
+        }
+        if (hostLimit != null) {
+            synchronized (adaptiveLimit) {
+                hostLimit.resize(acquireQueue.getLimit(), 0, 0);
+                acquireQueue.setLimit(0);
+            }
+        }
+        return super.disposeLater();
+    }
+
+    /**
+     * Creates a connection pool for the given driver connection factory.
+     *
+     * @param name The name of the datasource
+     * @param connectionFactory The driver connection factory
+     * @param configuration The pool configuration
+     * @return The connection pool
+     */
+    public static @NonNull R2dbcConnectionPool create(@NonNull String name,
+                                                      @NonNull ConnectionFactory connectionFactory,
+                                                      @NonNull R2dbcPoolConfiguration configuration) {
+        return create(name, connectionFactory, configuration, null, null);
+    }
+
+    /**
+     * Creates a connection pool for the given driver connection factory, adapting the number of connections in use to
+     * the observed latency if enabled.
+     *
+     * @param name The name of the datasource
+     * @param connectionFactory The driver connection factory
+     * @param configuration The pool configuration
+     * @param adaptiveConfiguration The adaptive sizing configuration, if any
+     * @param hostLimit The limit of the database host shared with the other adaptive pools, if any
+     * @return The connection pool
+     */
+    public static @NonNull R2dbcConnectionPool create(@NonNull String name,
+                                                      @NonNull ConnectionFactory connectionFactory,
+                                                      @NonNull R2dbcPoolConfiguration configuration,
+                                                      @Nullable R2dbcAdaptivePoolConfiguration adaptiveConfiguration,
+                                                      @Nullable HostConcurrencyLimit hostLimit) {
+        List<ConnectionPoolListener> listeners = new CopyOnWriteArrayList<>();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(new ListeningConnectionFactory(connectionFactory, listeners))
+                .name(name)
+                .initialSize(Math.min(configuration.getInitialSize(), configuration.getMaxSize()))
+                .minIdle(configuration.getMinIdle())
+                .maxSize(configuration.getMaxSize())
+                .maxIdleTime(configuration.getMaxIdleTime())
+                .validationDepth(configuration.getValidationDepth());
+        if (configuration.getMaxLifeTime() != null) {
+            builder.maxLifeTime(configuration.getMaxLifeTime());
+        }
+        boolean queued = configuration.getMaxPendingAcquire() != null || (adaptiveConfiguration != null && adaptiveConfiguration.isEnabled());
+        if (configuration.getMaxAcquireTime() != null && !queued) {
+            // applied by the pool across the acquire queue and the acquisition otherwise
+            builder.maxAcquireTime(configuration.getMaxAcquireTime());
+        }
+        if (configuration.getMaxCreateConnectionTime() != null) {
+            builder.maxCreateConnectionTime(configuration.getMaxCreateConnectionTime());
+        }
+        if (configuration.getBackgroundEvictionInterval() != null) {
+            builder.backgroundEvictionInterval(configuration.getBackgroundEvictionInterval());
+        }
+        if (configuration.getValidationQuery() != null) {
+            builder.validationQuery(configuration.getValidationQuery());
+        }
+        boolean hostLimited = DelegatingConnectionFactory.find(connectionFactory, HostLimitedConnectionFactory.class).isPresent()
+                || DelegatingConnectionFactory.find(connectionFactory, FailoverConnectionFactory.class)
+                        .map(failover -> failover.getEndpoints().stream().anyMatch(endpoint ->
+                                DelegatingConnectionFactory.find(endpoint.getConnectionFactory(), HostLimitedConnectionFactory.class).isPresent()))
+                        .orElse(false);
+        return new R2dbcConnectionPool(name, builder.build(), configuration, adaptiveConfiguration, hostLimit, hostLimited, listeners);
+    }
+
+    private Mono<Connection> acquire(Throwable acquisition, boolean permit) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean handedOver = new AtomicBoolean();
+            Mono<Connection> connection = (hostLimited ? leased(super.create()) : super.create())
+                    .doOnSuccess(c -> {
+                        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+                        notifyListeners(listeners, listener -> listener.onAcquire(duration));
+                    })
+                    .doOnError(throwable -> {
+                        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+                        notifyListeners(listeners, listener -> listener.onAcquireFailure(duration, throwable));
+                        if (adaptiveLimit != null) {
+                            adapt(adaptiveLimit.onFailure());
+                        }
+                    });
+            if (leakDetection == null && !permit && !hostLimited) {
+                return connection;
+            }
+            return connection
+                    .<Connection>map(c -> {
+                        handedOver.set(true);
+                        AcquiredConnection tracked = new AcquiredConnection(c, acquisition, permit);
+                        if (leakDetection != null) {
+                            acquired.add(tracked);
+                        }
+                        return tracked;
+                    })
+                    .doFinally(signal -> {
+                        if (permit && handedOver.compareAndSet(false, true)) {
+                            acquireQueue.release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Marks the acquired connection as leased, so that it is not reclaimed for another datasource of the host. A
+     * connection reclaimed while it was handed out is returned to the pool, which discards it as it no longer
+     * validates, and another one is acquired.
+     */
+    private static Mono<Connection> leased(Mono<Connection> acquisition) {
+        return acquisition
+                .flatMap(c -> HostLimitedConnectionFactory.lease(c) ? Mono.just(c) : Mono.from(c.close()).then(Mono.<Connection>empty()))
+                .repeatWhenEmpty(MAX_RECLAIMED_RETRIES, repeats -> repeats);
+    }
+
+    private void adapt(int desired) {
+        synchronized (adaptiveLimit) {
+            int current = acquireQueue.getLimit();
+            if (desired != current) {
+                acquireQueue.setLimit(hostLimit != null ? hostLimit.resize(current, desired, minLimit) : desired);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (AcquiredConnection connection : acquired) {
+            Duration held = Duration.ofNanos(now - connection.acquiredAt);
+            if (connection.reported || held.compareTo(leakDetectionThreshold) < 0) {
+                continue;
+            }
+            connection.reported = true;
+            if (LOG.isWarnEnabled()) {
+                String message = String.format("Connection of R2DBC datasource [%s] held for %dms without being closed, possible leak%s",
+                        name, held.toMillis(), leakDetectionForceClose ? ", closing it" : "");
+                if (connection.acquisition != null) {
+                    LOG.warn(message, connection.acquisition);
+                } else {
+                    LOG.warn(message);
+                }
+            }
+            notifyListeners(listeners, listener -> listener.onLeakSuspected(held, leakDetectionForceClose));
+            if (leakDetectionForceClose) {
+                Mono.from(connection.close()).subscribe(null, e -> {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("Closing leaked connection of R2DBC datasource [{}] failed: {}", name, e.getMessage(), e);
+                    }
+                });
+            }
+        }
+    }
+
+    private static void notifyListeners(List<ConnectionPoolListener> listeners, Consumer<ConnectionPoolListener> event) {
+        for (ConnectionPoolListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("Connection pool listener {} failed: {}", listener, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tracks an acquired connection until it is closed, and then releases its permit.
+     */
+    private final class AcquiredConnection extends DelegatingConnection {
+
+        private final long acquiredAt = System.nanoTime();
+        private final Throwable acquisition;
+        private final boolean permit;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean reported;
+
+        AcquiredConnection(Connection delegate, Throwable acquisition, boolean permit) {
+            super(delegate);
+            this.acquisition = acquisition;
+            this.permit = permit;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            if (!closed.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            acquired.remove(this);
+            if (hostLimited) {
+                HostLimitedConnectionFactory.idle(unwrap());
+            }
+            if (reported && !leakDetectionForceClose && LOG.isInfoEnabled()) {
+                LOG.info("Connection of R2DBC datasource [{}] previously reported as leaked was closed after {}ms", name,
+                        Duration.ofNanos(System.nanoTime() - acquiredAt).toMillis());
+            }
+            if (!permit) {
+                return super.close();
+            }
+            long held = System.nanoTime() - acquiredAt;
+            return Mono.from(super.close()).doFinally(signal -> {
+                acquireQueue.release();
+                if (adaptiveLimit != null) {
+                    adapt(adaptiveLimit.onSample(held, acquireQueue.getInUse() + 1));
+                }
+            });
+        }
+    }
+
+    /**
+     * Notifies the listeners when the pool opens or closes a connection to the database.
+     */
+    private static final class ListeningConnectionFactory extends DelegatingConnectionFactory {
+
+        private final List<ConnectionPoolListener> listeners;
+
+        ListeningConnectionFactory(ConnectionFactory delegate, List<ConnectionPoolListener> listeners) {
+            super(delegate);
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.from(super.create()).map(connection -> {
+                notifyListeners(listeners, ConnectionPoolListener::onConnectionCreated);
+                return new ListeningConnection(connection, listeners);
+            });
+        }
+    }
+
+    /**
+     * Notifies the listeners once the connection is closed.
+     */
+    private static final class ListeningConnection extends DelegatingConnection {
+
+        private final List<ConnectionPoolListener> listeners;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ListeningConnection(Connection delegate, List<ConnectionPoolListener> listeners) {
+            super(delegate);
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.from(super.close()).doFinally(signal -> {
+                if (closed.compareAndSet(false, true)) {
+                    notifyListeners(listeners, ConnectionPoolListener::onConnectionClosed);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.query;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Resolves column names to indexes once per shape of rows, the names of their columns in order, so name-based
+ * mapping reads the rows by index instead of searching the column of each value. The cache keeps the columns of up to
+ * its maximum number of shapes, and starts over once full. The columns of the metadata instances of the results being
+ * read, usually shared by all the rows of a result, are found by identity without locking, so concurrent queries of
+ * different shapes do not resolve their columns again for each row.
+ *
+ * <pre>{@code
+ * ColumnIndexCache cache = new ColumnIndexCache();
+ * RowMapper<Book> mapper = cache.mapper((row, columns) -> new Book(
+ *     columns.get(row, "id", Long.class),
+ *     columns.get(row, "title", String.class)));
+ * }</pre>
+ *
+ * @since 5.7.0
+ */
+public final class ColumnIndexCache {
+
+    /**
+     * The default maximum number of shapes.
+     */
+    public static final int DEFAULT_MAX_SHAPES = 64;
+
+    private static final int RECENT = 16;
+
+    private final int maxShapes;
+    private final Map<List<String>, Columns> shapes = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Columns> recent = new AtomicReferenceArray<>(RECENT);
+
+    /**
+     * Creates a cache of {@value #DEFAULT_MAX_SHAPES} shapes.
+     */
+    public ColumnIndexCache() {
+        this(DEFAULT_MAX_SHAPES);
+    }
+
+    /**
+     * @param maxShapes The maximum number of shapes
+     */
+    public ColumnIndexCache(int maxShapes) {
+        if (maxShapes <= 0) {
+            throw new IllegalArgumentException("Maximum number of shapes must be positive: " + maxShapes);
+        }
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * @param metadata The metadata of the rows
+     * @return The columns of the rows
+     */
+    public @NonNull Columns columns(@NonNull RowMetadata metadata) {
+        // a slot per metadata instance, usually shared by the rows of a result
+        int slot = System.identityHashCode(metadata) & (RECENT - 1);
+        Columns columns = recent.get(slot);
+        if (columns != null && columns.metadata == metadata) {
+            return columns;
+        }
+        List<String> names = new ArrayList<>();
+        for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+            names.add(column.getName());
+        }
+        columns = shapes.get(names);
+        if (columns == null) {
+            if (shapes.size() >= maxShapes) {
+                shapes.clear();
+            }
+            columns = shapes.computeIfAbsent(names, Columns::new);
+        }
+        columns = columns.withMetadata(metadata);
+        recent.set(slot, columns);
+        return columns;
+    }
+
+    /**
+     * Creates a row mapper reading the columns by name with the indexes of this cache.
+     *
+     * @param mapper The mapper of a row with its columns
+     * @param <T> The type of the mapped rows
+     * @return The row mapper
+     */
+    public <T> RowMapper<T> mapper(@NonNull BiFunction<Row, Columns, T> mapper) {
+        return (row, metadata) -> mapper.apply(row, columns(metadata));
+    }
+
+    /**
+     * @return The number of shapes cached
+     */
+    public int size() {
+        return shapes.size();
+    }
+
+    /**
+     * The indexes of the columns of a shape of rows.
+     */
+    public static final class Columns {
+
+        private final RowMetadata metadata;
+        private final List<String> names;
+        private final Map<String, Integer> indexes;
+        private final Map<String, Integer> caseInsensitiveIndexes;
+        private final Map<Object, Object> derived;
+
+        private Columns(List<String> names) {
+            this.metadata = null;
+            this.names = List.copyOf(names);
+            this.derived = new ConcurrentHashMap<>();
+            this.indexes = new HashMap<>();
+            this.caseInsensitiveIndexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = 0; i < names.size(); i++) {
+                indexes.putIfAbsent(names.get(i), i);
+                caseInsensitiveIndexes.putIfAbsent(names.get(i), i);
+            }
+        }
+
+        private Columns(Columns columns, RowMetadata metadata) {
+            this.metadata = metadata;
+            this.names = columns.names;
+            this.derived = columns.derived;
+            this.indexes = columns.indexes;
+            this.caseInsensitiveIndexes = columns.caseInsensitiveIndexes;
+        }
+
+        /**
+         * @return The names of the columns, in order
+         */
+        public @NonNull List<String> getNames() {
+            return names;
+        }
+
+        /**
+         * Returns the value derived from the columns of this shape for the given key, computing it on first use. The
+         * value is kept as long as the shape is cached, so mappers resolve their columns once per shape.
+         *
+         * @param key The key of the value, usually the mapper deriving it
+         * @param function Derives the value from the columns
+         * @param <V> The type of the value
+         * @return The value
+         */
+        @SuppressWarnings("unchecked")
+        public <V> V derive(@NonNull Object key, @NonNull Function<Columns, V> function) {
+            Object value = derived.get(key);
+            if (value == null) {
+                value = derived.computeIfAbsent(key, k -> function.apply(this));
+            }
+            return (V) value;
+        }
+
+        /**
+         * @param name The name of the column, case-insensitive
+         * @return The index of the column
+         * @throws NoSuchElementException If the rows have no such column
+         */
+        public int indexOf(@NonNull String name) {
+            Integer index = indexes.get(name);
+            if (index == null) {
+                index = caseInsensitiveIndexes.get(name);
+                if (index == null) {
+                    throw new NoSuchElementException("Column " + name + " does not exist");
+                }
+            }
+            return index;
+        }
+
+        /**
+         * @param name The name of the column, case-insensitive
+         * @return Whether the rows have the column
+         */
+        public boolean contains(@NonNull String name) {
+            return indexes.containsKey(name) || caseInsensitiveIndexes.containsKey(name);
+        }
+
+        /**
+         * Reads the value of a column by its index.
+         *
+         * @param row The row
+         * @param name The name of the column, case-insensitive
+         * @param type The type of the value
+         * @param <T> The type of the value
+         * @return The value
+         */
+        public <T> T get(@NonNull Row row, @NonNull String name, @NonNull Class<T> type) {
+            return row.get(indexOf(name), type);
+        }
+
+        private Columns withMetadata(RowMetadata metadata) {
+            return new Columns(this, metadata);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.query;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.beans.BeanIntrospection;
+import io.micronaut.core.beans.BeanProperty;
+import io.micronaut.core.reflect.ReflectionUtils;
+import io.micronaut.core.type.Argument;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link RowMapper} of {@link io.micronaut.core.annotation.Introspected} records and beans, based on the
+ * {@link BeanIntrospection} generated at compile time, so it maps without reflection and works in native images.
+ * The columns are matched to the constructor arguments and writable properties by name, ignoring case and
+ * underscores, so {@code first_name} matches {@code firstName}. A constructor argument without a column is
+ * {@code null}, unless it is primitive: the mapping then fails with a {@link NoSuchElementException}, and with an
+ * {@link IllegalStateException} if the column of a primitive constructor argument is {@code null}. Properties without
+ * a column, and primitive properties whose column is {@code null}, keep their default value.
+ *
+ * <p>The column of each property is resolved once per shape of the rows, kept by a {@link ColumnIndexCache}, and
+ * the rows are then read by index with the type of the property.</p>
+ *
+ * <pre>{@code
+ * RowMapper<Book> mapper = IntrospectedRowMapper.of(Book.class);
+ * Flux<Book> books = StreamingQuery.of("SELECT id, title FROM book").stream(connectionFactory, mapper);
+ * }</pre>
+ *
+ * @param <T> The type of the mapped rows
+ * @since 5.7.0
+ */
+public final class IntrospectedRowMapper<T> implements RowMapper<T> {
+
+    private final BeanIntrospection<T> introspection;
+    private final Argument<?>[] arguments;
+    private final List<BeanProperty<T, Object>> properties = new ArrayList<>();
+    private final ColumnIndexCache columnIndexCache;
+
+    private IntrospectedRowMapper(BeanIntrospection<T> introspection, ColumnIndexCache columnIndexCache) {
+        this.introspection = introspection;
+        this.columnIndexCache = columnIndexCache;
+        this.arguments = introspection.getConstructorArguments();
+        for (BeanProperty<T, Object> property : introspection.getBeanProperties()) {
+            if (!property.isReadOnly() && !isConstructorArgument(property.getName())) {
+                properties.add(property);
+            }
+        }
+    }
+
+    /**
+     * @param type The introspected type
+     * @param <T> The introspected type
+     * @return The mapper of the type
+     * @throws io.micronaut.core.beans.exceptions.IntrospectionException If the type is not introspected
+     */
+    public static <T> IntrospectedRowMapper<T> of(@NonNull Class<T> type) {
+        return of(type, new ColumnIndexCache());
+    }
+
+    /**
+     * @param type The introspected type
+     * @param columnIndexCache The cache of the shapes of the rows, which keeps the columns of the mapper per shape
+     * @param <T> The introspected type
+     * @return The mapper of the type
+     * @throws io.micronaut.core.beans.exceptions.IntrospectionException If the type is not introspected
+     */
+    public static <T> IntrospectedRowMapper<T> of(@NonNull Class<T> type, @NonNull ColumnIndexCache columnIndexCache) {
+        return new IntrospectedRowMapper<>(BeanIntrospection.getIntrospection(type), columnIndexCache);
+    }
+
+    @Override
+    public T map(@NonNull Row row, @NonNull RowMetadata metadata) {
+        Plan current = columnIndexCache.columns(metadata).derive(this, Plan::new);
+        Object[] values = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            int index = current.argumentColumns[i];
+            if (index >= 0) {
+                Object value = row.get(index, current.argumentTypes[i]);
+                if (value == null && arguments[i].isPrimitive()) {
+                    throw new IllegalStateException("Column " + current.names.get(index) + " is null for the primitive constructor argument ["
+                            + arguments[i].getName() + "] of " + introspection.getBeanType().getName());
+                }
+                values[i] = value;
+            }
+        }
+        T instance = arguments.length == 0 ? introspection.instantiate() : introspection.instantiate(values);
+        for (int i = 0; i < current.propertyColumns.length; i++) {
+            int index = current.propertyColumns[i];
+            if (index >= 0) {
+                Object value = row.get(index, current.propertyTypes[i]);
+                // a primitive property keeps its default value
+                if (value != null || !properties.get(i).getType().isPrimitive()) {
+                    properties.get(i).set(instance, value);
+                }
+            }
+        }
+        return instance;
+    }
+
+    private boolean isConstructorArgument(String name) {
+        for (Argument<?> argument : arguments) {
+            if (argument.getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The columns of the constructor arguments and properties for a shape of rows, -1 if the row has no such column.
+     */
+    private final class Plan {
+
+        private final List<String> names;
+        private final int[] argumentColumns = new int[arguments.length];
+        private final Class<?>[] argumentTypes = new Class<?>[arguments.length];
+        private final int[] propertyColumns = new int[properties.size()];
+        private final Class<?>[] propertyTypes = new Class<?>[properties.size()];
+
+        Plan(ColumnIndexCache.Columns columns) {
+            Map<String, Integer> indexes = new HashMap<>();
+            this.names = columns.getNames();
+            for (int i = 0; i < names.size(); i++) {
+                indexes.putIfAbsent(normalize(names.get(i)), i);
+            }
+            for (int i = 0; i < arguments.length; i++) {
+                argumentColumns[i] = indexes.getOrDefault(normalize(arguments[i].getName()), -1);
+                if (argumentColumns[i] < 0 && arguments[i].isPrimitive()) {
+                    throw new NoSuchElementException("No column matches the primitive constructor argument ["
+                            + arguments[i].getName() + "] of " + introspection.getBeanType().getName() + " among the columns " + names);
+                }
+                argumentTypes[i] = ReflectionUtils.getWrapperType(arguments[i].getType());
+            }
+            for (int i = 0; i < properties.size(); i++) {
+                propertyColumns[i] = indexes.getOrDefault(normalize(properties.get(i).getName()), -1);
+                propertyTypes[i] = ReflectionUtils.getWrapperType(properties.get(i).getType());
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.query;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+
+import java.util.function.BiFunction;
+
+/**
+ * Maps a {@link Row} to an object, for {@link io.r2dbc.spi.Result#map(BiFunction)}. Mappers are stateless and reused
+ * across rows and queries, and read the columns directly from the row, without intermediate collections.
+ *
+ * @param <T> The type of the mapped rows
+ * @since 5.7.0
+ */
+@FunctionalInterface
+public interface RowMapper<T> extends BiFunction<Row, RowMetadata, T> {
+
+    /**
+     * Maps a row.
+     *
+     * @param row The row, only valid during the invocation
+     * @param metadata The metadata of the row
+     * @return The mapped row
+     */
+    T map(@NonNull Row row, @NonNull RowMetadata metadata);
+
+    @Override
+    default T apply(Row row, RowMetadata metadata) {
+        return map(row, metadata);
+    }
+
+    /**
+     * @param index The index of the column, starting at 0
+     * @param type The type of the value
+     * @param <T> The type of the value
+     * @return A mapper of the value of a column
+     */
+    static <T> RowMapper<T> column(int index, @NonNull Class<T> type) {
+        return (row, metadata) -> row.get(index, type);
+    }
+
+    /**
+     * @param name The name of the column
+     * @param type The type of the value
+     * @param <T> The type of the value
+     * @return A mapper of the value of a column
+     */
+    static <T> RowMapper<T> column(@NonNull String name, @NonNull Class<T> type) {
+        return (row, metadata) -> row.get(name, type);
+    }
+}
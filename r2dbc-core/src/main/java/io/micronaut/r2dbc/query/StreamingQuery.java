@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.query;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A query whose rows are streamed to the subscriber with bounded demand. At most the prefetch of rows is requested
+ * from the driver ahead of their consumption, replenished in batches of three quarters of the prefetch, and the
+ * database is asked to send the rows in batches of the fetch size, for the drivers supporting cursors.
+ *
+ * <pre>{@code
+ * Flux<Book> books = StreamingQuery.of("SELECT id, title FROM book WHERE author = $1")
+ *     .bind(0, author)
+ *     .fetchSize(1000)
+ *     .prefetch(256)
+ *     .stream(connectionFactory, (row, metadata) -> new Book(row.get(0, Long.class), row.get(1, String.class)));
+ * }</pre>
+ *
+ * <p>A query is reusable, each subscription to a stream executes it again.</p>
+ *
+ * @since 5.7.0
+ */
+public final class StreamingQuery {
+
+    /**
+     * The default number of rows requested ahead of their consumption.
+     */
+    public static final int DEFAULT_PREFETCH = 256;
+
+    private final String sql;
+    private final List<Consumer<Statement>> bindings = new ArrayList<>();
+    private int fetchSize;
+    private int prefetch = DEFAULT_PREFETCH;
+
+    private StreamingQuery(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * @param sql The SQL of the query
+     * @return A query
+     */
+    public static @NonNull StreamingQuery of(@NonNull String sql) {
+        return new StreamingQuery(sql);
+    }
+
+    /**
+     * @param index The index of the parameter
+     * @param value The value
+     * @return This query
+     */
+    public @NonNull StreamingQuery bind(int index, @NonNull Object value) {
+        bindings.add(statement -> statement.bind(index, value));
+        return this;
+    }
+
+    /**
+     * @param name The name of the parameter
+     * @param value The value
+     * @return This query
+     */
+    public @NonNull StreamingQuery bind(@NonNull String name, @NonNull Object value) {
+        bindings.add(statement -> statement.bind(name, value));
+        return this;
+    }
+
+    /**
+     * @param index The index of the parameter
+     * @param type The type of the value
+     * @return This query
+     */
+    public @NonNull StreamingQuery bindNull(int index, @NonNull Class<?> type) {
+        bindings.add(statement -> statement.bindNull(index, type));
+        return this;
+    }
+
+    /**
+     * @param name The name of the parameter
+     * @param type The type of the value
+     * @return This query
+     */
+    public @NonNull StreamingQuery bindNull(@NonNull String name, @NonNull Class<?> type) {
+        bindings.add(statement -> statement.bindNull(name, type));
+        return this;
+    }
+
+    /**
+     * Sets the number of rows the database sends at once, through {@link Statement#fetchSize(int)}. Drivers without
+     * cursor support ignore it. The default of the driver applies if not set.
+     *
+     * @param fetchSize The fetch size
+     * @return This query
+     */
+    public @NonNull StreamingQuery fetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("Fetch size must not be negative: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of rows requested from the driver ahead of their consumption. Default value ({@value #DEFAULT_PREFETCH}).
+     *
+     * @param prefetch The prefetch
+     * @return This query
+     */
+    public @NonNull StreamingQuery prefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Prefetch must be positive: " + prefetch);
+        }
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Streams the rows of the query on a connection acquired from the factory, and closed once the stream
+     * completes, fails or is cancelled.
+     *
+     * @param connectionFactory The connection factory
+     * @param mapper The row mapper
+     * @param <T> The type of the mapped rows
+     * @return The mapped rows
+     */
+    public <T> Flux<T> stream(@NonNull ConnectionFactory connectionFactory, @NonNull RowMapper<T> mapper) {
+        return Flux.usingWhen(connectionFactory.create(),
+                        connection -> rows(connection, mapper),
+                        Connection::close,
+                        (connection, e) -> connection.close(),
+                        Connection::close)
+                .limitRate(prefetch);
+    }
+
+    /**
+     * Streams the rows of the query on the given connection, for instance in a transaction.
+     *
+     * @param connection The connection
+     * @param mapper The row mapper
+     * @param <T> The type of the mapped rows
+     * @return The mapped rows
+     */
+    public <T> Flux<T> stream(@NonNull Connection connection, @NonNull RowMapper<T> mapper) {
+        return rows(connection, mapper).limitRate(prefetch);
+    }
+
+    private <T> Flux<T> rows(Connection connection, RowMapper<T> mapper) {
+        return Flux.defer(() -> {
+            Statement statement = connection.createStatement(sql);
+            for (Consumer<Statement> binding : bindings) {
+                binding.accept(statement);
+            }
+            if (fetchSize > 0) {
+                statement.fetchSize(fetchSize);
+            }
+            return Flux.from(statement.execute());
+        }).concatMap(result -> result.map(mapper));
+    }
+}
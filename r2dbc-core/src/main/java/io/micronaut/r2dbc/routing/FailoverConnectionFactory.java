@@ -0,0 +1,264 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.routing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.config.R2dbcFailoverConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.R2dbcTransientResourceException;
+import io.r2dbc.spi.ValidationDepth;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link ConnectionFactory} over an ordered list of endpoints of the same database. Connections are opened on the
+ * first endpoint that is not known to be down. An endpoint is skipped for the configured open duration after the
+ * configured number of consecutive failures, and is probed in the background so it is used again once it recovers.
+ * Only connection and transport failures count: other errors, such as the timeout of a saturated host connection
+ * limit, are reported without trying the next endpoint.
+ *
+ * @since 5.7.0
+ */
+public class FailoverConnectionFactory implements ConnectionFactory, Disposable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FailoverConnectionFactory.class);
+
+    private final List<Endpoint> endpoints;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final Duration probeTimeout;
+    private final Disposable probes;
+    private final AtomicBoolean disposed = new AtomicBoolean();
+
+    /**
+     * @param endpoints The connection factories of the endpoints by address, in order of preference
+     * @param configuration The failover configuration
+     */
+    public FailoverConnectionFactory(@NonNull Map<String, ConnectionFactory> endpoints,
+                                     @NonNull R2dbcFailoverConfiguration configuration) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        List<Endpoint> list = new ArrayList<>(endpoints.size());
+        endpoints.forEach((address, connectionFactory) -> list.add(new Endpoint(address, connectionFactory)));
+        this.endpoints = List.copyOf(list);
+        this.failureThreshold = configuration.getFailureThreshold();
+        this.openDurationNanos = configuration.getOpenDuration().toNanos();
+        this.probeTimeout = configuration.getProbeTimeout();
+        Duration probeInterval = configuration.getProbeInterval();
+        if (probeInterval != null && !probeInterval.isZero() && !probeInterval.isNegative()) {
+            this.probes = Flux.interval(probeInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> Flux.fromIterable(this.endpoints)
+                            .filter(Endpoint::isOpen)
+                            .concatMap(this::probe), 1)
+                    .subscribe();
+        } else {
+            this.probes = null;
+        }
+    }
+
+    /**
+     * @return The endpoints, in order of preference
+     */
+    public @NonNull List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+            for (Endpoint endpoint : endpoints) {
+                if (!endpoint.isOpen()) {
+                    candidates.add(endpoint);
+                }
+            }
+            if (candidates.isEmpty()) {
+                // every endpoint is down, try the ones that should recover first
+                candidates.addAll(endpoints);
+                candidates.sort(Comparator.comparingLong(endpoint -> endpoint.openUntil - System.nanoTime()));
+            }
+            return create(candidates, 0, null);
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return endpoints.get(0).connectionFactory.getMetadata();
+    }
+
+    @Override
+    public void dispose() {
+        if (!disposed.compareAndSet(false, true)) {
+            return;
+        }
+        if (probes != null) {
+            probes.dispose();
+        }
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.connectionFactory instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed.get();
+    }
+
+    private Mono<Connection> create(List<Endpoint> candidates, int index, Throwable previous) {
+        if (index >= candidates.size()) {
+            return Mono.error(previous);
+        }
+        Endpoint endpoint = candidates.get(index);
+        return Mono.<Connection>from(endpoint.connectionFactory.create())
+                .doOnNext(connection -> endpoint.onSuccess())
+                .onErrorResume(e -> {
+                    if (previous != null) {
+                        e.addSuppressed(previous);
+                    }
+                    if (!isHostFailure(e)) {
+                        // a reachable endpoint, for instance one whose host connection limit is saturated
+                        return Mono.error(e);
+                    }
+                    endpoint.onFailure(e);
+                    return create(candidates, index + 1, e);
+                });
+    }
+
+    private Mono<Boolean> probe(Endpoint endpoint) {
+        return Mono.usingWhen(endpoint.connectionFactory.create(),
+                        connection -> Mono.from(connection.validate(ValidationDepth.REMOTE)),
+                        Connection::close)
+                // a host that accepts connections but never answers is as down as one that refuses them
+                .timeout(probeTimeout)
+                .doOnNext(valid -> {
+                    if (Boolean.TRUE.equals(valid)) {
+                        endpoint.onSuccess();
+                    } else {
+                        endpoint.onFailure(null);
+                    }
+                })
+                .onErrorResume(e -> {
+                    if (isHostFailure(e)) {
+                        endpoint.onFailure(e);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Whether an error opening a connection means that the endpoint cannot be reached: a connection or transport
+     * failure, or a timeout other than the {@link io.r2dbc.spi.R2dbcTimeoutException} of a saturated host connection
+     * limit.
+     */
+    private static boolean isHostFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof R2dbcNonTransientResourceException || t instanceof R2dbcTransientResourceException
+                    || t instanceof IOException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An endpoint and its health.
+     */
+    public final class Endpoint {
+
+        private final String address;
+        private final ConnectionFactory connectionFactory;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean open;
+        private volatile long openUntil;
+
+        private Endpoint(String address, ConnectionFactory connectionFactory) {
+            this.address = address;
+            this.connectionFactory = connectionFactory;
+        }
+
+        /**
+         * @return The address of the endpoint
+         */
+        public @NonNull String getAddress() {
+            return address;
+        }
+
+        /**
+         * @return The connection factory of the endpoint
+         */
+        public @NonNull ConnectionFactory getConnectionFactory() {
+            return connectionFactory;
+        }
+
+        /**
+         * @return The number of consecutive failures to open a connection on the endpoint
+         */
+        public int getConsecutiveFailures() {
+            return consecutiveFailures.get();
+        }
+
+        /**
+         * @return Whether the endpoint is skipped because it failed recently
+         */
+        public boolean isOpen() {
+            return open && openUntil - System.nanoTime() > 0;
+        }
+
+        private void onSuccess() {
+            consecutiveFailures.set(0);
+            if (open) {
+                open = false;
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("R2DBC endpoint [{}] is available again", address);
+                }
+            }
+        }
+
+        private void onFailure(Throwable throwable) {
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                openUntil = System.nanoTime() + openDurationNanos;
+                if (!open) {
+                    open = true;
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("R2DBC endpoint [{}] is skipped after {} consecutive failures: {}", address,
+                                consecutiveFailures.get(), throwable != null ? throwable.getMessage() : "validation failed");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.routing;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.config.R2dbcReadReplicaConfiguration;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A {@link ConnectionFactory} that acquires connections from the primary datasource, unless the subscriber context
+ * marks the acquisition as read-only, in which case a connection of a read replica is acquired.
+ *
+ * <pre>{@code
+ * Mono.from(connectionFactory.create())
+ *     .contextWrite(ReadWriteRoutingConnectionFactory::readOnly)
+ * }</pre>
+ *
+ * @since 5.7.0
+ */
+public class ReadWriteRoutingConnectionFactory extends DelegatingConnectionFactory {
+
+    /**
+     * The key of the Reactor context entry that marks an acquisition as read-only.
+     */
+    public static final String READ_ONLY = ReadWriteRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingConnectionFactory.class);
+
+    private final List<ConnectionFactory> replicas;
+    private final R2dbcReadReplicaConfiguration.LoadBalancing loadBalancing;
+    private final boolean fallbackToPrimary;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicIntegerArray pending;
+
+    /**
+     * @param primary The primary connection factory
+     * @param replicas The connection factories of the replicas
+     * @param configuration The read replica configuration
+     */
+    public ReadWriteRoutingConnectionFactory(@NonNull ConnectionFactory primary,
+                                             @NonNull List<ConnectionFactory> replicas,
+                                             @NonNull R2dbcReadReplicaConfiguration configuration) {
+        super(primary);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.loadBalancing = configuration.getLoadBalancing();
+        this.fallbackToPrimary = configuration.isFallbackToPrimary();
+        this.pending = new AtomicIntegerArray(replicas.size());
+    }
+
+    /**
+     * @return The connection factories of the replicas
+     */
+    public @NonNull List<ConnectionFactory> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.deferContextual(context -> isReadOnly(context) ? createReadOnly() : Mono.<Connection>from(super.create()));
+    }
+
+    /**
+     * Marks the connection acquisitions of a reactive pipeline as read-only.
+     *
+     * @param context The subscriber context
+     * @return The context with the read-only marker
+     */
+    public static @NonNull Context readOnly(@NonNull Context context) {
+        return context.put(READ_ONLY, Boolean.TRUE);
+    }
+
+    /**
+     * @param context The subscriber context
+     * @return Whether connection acquisitions are read-only in the given context
+     */
+    public static boolean isReadOnly(@NonNull ContextView context) {
+        return context.getOrDefault(READ_ONLY, Boolean.FALSE);
+    }
+
+    private Mono<Connection> createReadOnly() {
+        int index = select();
+        Mono<Connection> connection = Mono.defer(() -> {
+            pending.incrementAndGet(index);
+            return Mono.<Connection>from(replicas.get(index).create())
+                    .doFinally(signal -> pending.decrementAndGet(index));
+        });
+        if (!fallbackToPrimary) {
+            return connection;
+        }
+        return connection.onErrorResume(e -> {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Failed to acquire a connection from replica {}, falling back to the primary: {}", index, e.getMessage());
+            }
+            return Mono.<Connection>from(super.create());
+        });
+    }
+
+    private int select() {
+        int size = replicas.size();
+        if (loadBalancing == R2dbcReadReplicaConfiguration.LoadBalancing.LEAST_PENDING) {
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            int selected = start;
+            for (int i = 1; i < size; i++) {
+                int candidate = (start + i) % size;
+                if (pending.get(candidate) < pending.get(selected)) {
+                    selected = candidate;
+                }
+            }
+            return selected;
+        }
+        return Math.floorMod(next.getAndIncrement(), size);
+    }
+}
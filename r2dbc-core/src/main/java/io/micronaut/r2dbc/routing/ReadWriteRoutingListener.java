@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.routing;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.context.exceptions.ConfigurationException;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.r2dbc.config.R2dbcReadReplicaConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wraps the {@link ConnectionFactory} of a datasource with configured read replicas in a
+ * {@link ReadWriteRoutingConnectionFactory}. Runs after the other listeners so that the primary and the replicas
+ * are routed to as fully decorated beans.
+ *
+ * @since 5.7.0
+ */
+@Internal
+@Singleton
+final class ReadWriteRoutingListener implements BeanCreatedEventListener<ConnectionFactory>, Ordered {
+
+    /**
+     * The order of the listener.
+     */
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    @Override
+    public ConnectionFactory onCreated(BeanCreatedEvent<ConnectionFactory> event) {
+        String name = event.getBeanIdentifier().getName();
+        BeanContext beanContext = event.getSource();
+        Optional<R2dbcReadReplicaConfiguration> configuration = beanContext.findBean(R2dbcReadReplicaConfiguration.class, Qualifiers.byName(name));
+        if (configuration.isEmpty() || configuration.get().getDatasources().isEmpty()) {
+            return event.getBean();
+        }
+        List<ConnectionFactory> replicas = new ArrayList<>(configuration.get().getDatasources().size());
+        for (String replica : configuration.get().getDatasources()) {
+            validate(beanContext, name, replica);
+        }
+        for (String replica : configuration.get().getDatasources()) {
+            replicas.add(beanContext.getBean(ConnectionFactory.class, Qualifiers.byName(replica)));
+        }
+        return new ReadWriteRoutingConnectionFactory(event.getBean(), replicas, configuration.get());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Checks from the configuration, before the replica is created, that it is not routed itself. A replica with
+     * replicas of its own would route its reads further, and creating the datasources of a cycle would never end.
+     */
+    private static void validate(BeanContext beanContext, String name, String replica) {
+        if (replica.equals(name)) {
+            throw new ConfigurationException("R2DBC datasource [" + name + "] cannot be a read replica of itself");
+        }
+        List<String> nested = beanContext.findBean(R2dbcReadReplicaConfiguration.class, Qualifiers.byName(replica))
+                .map(R2dbcReadReplicaConfiguration::getDatasources)
+                .orElse(List.of());
+        if (nested.contains(name)) {
+            throw new ConfigurationException("R2DBC datasources [" + name + "] and [" + replica + "] cannot be read replicas of each other");
+        }
+        if (!nested.isEmpty()) {
+            throw new ConfigurationException("R2DBC datasource [" + replica + "] is a read replica of [" + name + "] and cannot have read replicas of its own");
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.config.R2dbcBatchingConfiguration;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@link ConnectionFactory} that executes identical {@code INSERT} statements, executed concurrently on
+ * auto-commit connections, together as a single {@link Statement#add() batch}. A statement waits at most the
+ * configured delay for other statements to batch with, and the batch is executed on the connection and in the
+ * subscription of its first statement still subscribed, so that cancelling that statement cancels the batch and fails
+ * the others. Statements cancelled before their batch is executed are left out of it. Each statement then receives its
+ * own update count, or no update count if the driver reports a single count for the whole batch.
+ *
+ * <p>Statements are executed individually when the connection is in a transaction, when the application batches
+ * or requests generated values itself, or when batching is disabled in the subscriber context:</p>
+ *
+ * <pre>{@code
+ * Flux.from(statement.execute())
+ *     .contextWrite(BatchingConnectionFactory::withoutBatching)
+ * }</pre>
+ *
+ * <p>A statement that fails fails every statement of its batch, although the rows of the other statements may already
+ * be inserted, as auto-commit drivers may commit the statements of a batch individually.</p>
+ *
+ * @since 5.7.0
+ */
+public class BatchingConnectionFactory extends DelegatingConnectionFactory {
+
+    /**
+     * The key of the Reactor context entry that disables batching.
+     */
+    public static final String WITHOUT_BATCHING = BatchingConnectionFactory.class.getName() + ".WITHOUT_BATCHING";
+
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final Map<String, Batcher> batchers = new ConcurrentHashMap<>();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedStatements = new LongAdder();
+
+    /**
+     * @param delegate The connection factory to delegate to
+     * @param configuration The batching configuration
+     */
+    public BatchingConnectionFactory(@NonNull ConnectionFactory delegate, @NonNull R2dbcBatchingConfiguration configuration) {
+        super(delegate);
+        this.maxSize = configuration.getMaxSize();
+        this.maxDelayNanos = configuration.getMaxDelay().toNanos();
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(super.create()).map(BatchingConnection::new);
+    }
+
+    /**
+     * @return The number of batches executed
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return The number of statements executed as part of a batch
+     */
+    public long getBatchedStatements() {
+        return batchedStatements.sum();
+    }
+
+    /**
+     * Disables batching for the statements executed by a reactive pipeline.
+     *
+     * @param context The subscriber context
+     * @return The context with batching disabled
+     */
+    public static @NonNull Context withoutBatching(@NonNull Context context) {
+        return context.put(WITHOUT_BATCHING, Boolean.TRUE);
+    }
+
+    private static boolean isBatchable(String sql) {
+        String statement = sql.stripLeading();
+        return statement.regionMatches(true, 0, "INSERT", 0, 6)
+                && !statement.toUpperCase(Locale.ROOT).contains("RETURNING");
+    }
+
+    /**
+     * Creates batching statements for {@code INSERT} statements.
+     */
+    private final class BatchingConnection extends DelegatingConnection {
+
+        BatchingConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            if (isBatchable(sql)) {
+                return new BatchingStatement(unwrap(), sql);
+            }
+            return super.createStatement(sql);
+        }
+    }
+
+    /**
+     * Records the bindings of a statement until it is executed, individually or as part of a batch.
+     */
+    private final class BatchingStatement implements Statement {
+
+        private final Connection connection;
+        private final String sql;
+        private final List<Consumer<Statement>> bindings = new ArrayList<>();
+        private boolean batchable = true;
+
+        BatchingStatement(Connection connection, String sql) {
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Statement add() {
+            batchable = false;
+            bindings.add(Statement::add);
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            bindings.add(statement -> statement.bind(index, value));
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            bindings.add(statement -> statement.bind(name, value));
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            bindings.add(statement -> statement.bindNull(index, type));
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            bindings.add(statement -> statement.bindNull(name, type));
+            return this;
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            batchable = false;
+            bindings.add(statement -> statement.returnGeneratedValues(columns));
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            bindings.add(statement -> statement.fetchSize(rows));
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            List<Consumer<Statement>> recorded = List.copyOf(bindings);
+            return Flux.deferContextual(context -> {
+                if (!batchable || !connection.isAutoCommit() || context.getOrDefault(WITHOUT_BATCHING, Boolean.FALSE)) {
+                    Statement statement = connection.createStatement(sql);
+                    recorded.forEach(binding -> binding.accept(statement));
+                    return Flux.<Result>from(statement.execute());
+                }
+                return batchers.computeIfAbsent(sql, Batcher::new).submit(new Pending(connection, recorded));
+            });
+        }
+    }
+
+    /**
+     * Collects the statements executed with the same SQL until the batch is full or the delay expires.
+     */
+    private final class Batcher {
+
+        private final String sql;
+        private List<Pending> pending = new ArrayList<>();
+        private Disposable timer;
+
+        Batcher(String sql) {
+            this.sql = sql;
+        }
+
+        Mono<Result> submit(Pending statement) {
+            List<Pending> batch = null;
+            synchronized (this) {
+                pending.add(statement);
+                if (pending.size() >= maxSize) {
+                    batch = drain();
+                } else if (pending.size() == 1) {
+                    timer = Schedulers.parallel().schedule(this::flush, maxDelayNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (batch != null) {
+                start(batch);
+            }
+            return statement.outcome.asMono()
+                    .flatMap(outcome -> outcome)
+                    .doOnCancel(statement::cancel);
+        }
+
+        private void flush() {
+            List<Pending> batch;
+            synchronized (this) {
+                batch = drain();
+            }
+            if (!batch.isEmpty()) {
+                start(batch);
+            }
+        }
+
+        private List<Pending> drain() {
+            List<Pending> batch = pending;
+            pending = new ArrayList<>();
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+            // statements submitted concurrently to this batcher create a new one, so the map does not retain the SQL
+            batchers.remove(sql, this);
+            return batch;
+        }
+
+        /**
+         * Hands the batch to its first statement still subscribed, which executes it on its connection.
+         */
+        private void start(List<Pending> drained) {
+            List<Pending> statements = new ArrayList<>(drained.size());
+            for (Pending statement : drained) {
+                if (!statement.cancelled) {
+                    statements.add(statement);
+                }
+            }
+            if (statements.isEmpty()) {
+                return;
+            }
+            Batch batch = new Batch(sql, statements);
+            Pending leader = statements.get(0);
+            leader.leading = batch;
+            if (leader.cancelled) {
+                batch.abandon();
+            } else {
+                leader.outcome.tryEmitValue(batch.execute());
+            }
+        }
+    }
+
+    /**
+     * A batch of statements, executed in the subscription of its first statement so that cancelling that statement
+     * cancels the batch.
+     */
+    private final class Batch {
+
+        private final String sql;
+        private final List<Pending> statements;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Batch(String sql, List<Pending> statements) {
+            this.sql = sql;
+            this.statements = statements;
+        }
+
+        Mono<Result> execute() {
+            return Mono.defer(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return Mono.error(new CancellationException("The batch was abandoned"));
+                }
+                batches.increment();
+                batchedStatements.add(statements.size());
+                Statement statement = statements.get(0).connection.createStatement(sql);
+                for (int i = 0; i < statements.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    statements.get(i).bindings.forEach(binding -> binding.accept(statement));
+                }
+                return Flux.<Result>from(statement.execute())
+                        .concatMap(result -> Mono.from(result.getRowsUpdated()))
+                        .collectList()
+                        .<Result>map(this::complete)
+                        .doOnError(this::fail)
+                        .doOnCancel(() -> fail(new CancellationException("The statement executing the batch was cancelled")));
+            });
+        }
+
+        void abandon() {
+            if (started.compareAndSet(false, true)) {
+                fail(new CancellationException("The statement executing the batch was cancelled"));
+            }
+        }
+
+        private Result complete(List<Long> counts) {
+            for (int i = 1; i < statements.size(); i++) {
+                statements.get(i).outcome.tryEmitValue(Mono.just(new UpdateCountResult(count(counts, i))));
+            }
+            return new UpdateCountResult(count(counts, 0));
+        }
+
+        private Long count(List<Long> counts, int index) {
+            // drivers that report a single count for the whole batch leave the count of each statement unknown
+            return counts.size() == statements.size() ? counts.get(index) : null;
+        }
+
+        private void fail(Throwable e) {
+            for (int i = 1; i < statements.size(); i++) {
+                statements.get(i).outcome.tryEmitValue(Mono.error(e));
+            }
+        }
+    }
+
+    /**
+     * A statement waiting for the execution of its batch. Its outcome is the execution of the batch if it leads the
+     * batch, or its update count otherwise.
+     */
+    private static final class Pending {
+
+        private final Connection connection;
+        private final List<Consumer<Statement>> bindings;
+        private final Sinks.One<Mono<Result>> outcome = Sinks.one();
+        private volatile boolean cancelled;
+        private volatile Batch leading;
+
+        Pending(Connection connection, List<Consumer<Statement>> bindings) {
+            this.connection = connection;
+            this.bindings = bindings;
+        }
+
+        void cancel() {
+            cancelled = true;
+            Batch batch = leading;
+            if (batch != null) {
+                batch.abandon();
+            }
+        }
+    }
+
+    /**
+     * The result of a statement executed as part of a batch.
+     */
+    private static final class UpdateCountResult implements Result {
+
+        private final Long rowsUpdated;
+
+        UpdateCountResult(Long rowsUpdated) {
+            this.rowsUpdated = rowsUpdated;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return Mono.justOrEmpty(rowsUpdated);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.empty();
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Result filter(Predicate<Result.Segment> filter) {
+            if (rowsUpdated == null || filter.test(segment())) {
+                return this;
+            }
+            return new UpdateCountResult(null);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Result.Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            if (rowsUpdated == null) {
+                return Flux.empty();
+            }
+            return Flux.from(mappingFunction.apply(segment()));
+        }
+
+        private Result.UpdateCount segment() {
+            long value = rowsUpdated;
+            return () -> value;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+/**
+ * A count-min sketch estimating how often each key was used recently, with 4-bit counters that are halved once the
+ * number of recorded uses reaches ten times the capacity, so that the past popularity of keys fades. Not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param capacity The maximum number of keys of the cache
+     */
+    FrequencySketch(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.table = new long[length];
+        this.mask = length - 1;
+        this.sampleSize = 10 * Math.max(capacity, 16);
+    }
+
+    /**
+     * Records a use of the key.
+     *
+     * @param hash The hash of the key
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = index(hash, i);
+            int index = (int) (h >>> 4) & mask;
+            int offset = (int) (h & 15) << 2;
+            if (((table[index] >>> offset) & MAX_COUNT) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * @param hash The hash of the key
+     * @return The estimated number of recent uses of the key, at most 15
+     */
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = index(hash, i);
+            int index = (int) (h >>> 4) & mask;
+            int offset = (int) (h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> offset) & MAX_COUNT));
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+    private static long index(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h ^ (h >>> 32);
+    }
+}
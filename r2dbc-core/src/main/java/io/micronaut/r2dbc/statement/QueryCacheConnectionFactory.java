@@ -0,0 +1,750 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.convert.ConversionService;
+import io.micronaut.r2dbc.config.R2dbcQueryCacheConfiguration;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.DelegatingResult;
+import io.micronaut.r2dbc.support.DelegatingStatement;
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConnectionFactory} that caches the results of the queries reading only the configured tables, by SQL and
+ * bindings, and replays them without executing the statement again. The statements writing to a cached table
+ * through this connection factory invalidate the results reading it: immediately in auto-commit mode, or once the
+ * transaction ends otherwise. Writes made by other applications are only seen once the results expire.
+ *
+ * <p>The rows of a cacheable query are read with the default type of the driver and converted to the requested type
+ * with the {@link ConversionService}, whether they are served from the cache or not. They are recorded while they are
+ * consumed, and the query is only cached once all of them were read, if they fit in the cache and only hold
+ * immutable values.</p>
+ *
+ * <p>The queries executed in a transaction neither use nor fill the cache, as they may read uncommitted writes. The
+ * cache admits and evicts the queries by frequency, so that a burst of queries executed once does not evict the
+ * queries executed often.</p>
+ *
+ * @see R2dbcQueryCacheConfiguration
+ * @since 5.7.0
+ */
+public class QueryCacheConnectionFactory extends DelegatingConnectionFactory {
+
+    private static final Object NULL = new Object();
+
+    private final Set<String> tables;
+    private final int maxQueries;
+    private final int maxRows;
+    private final QueryResultCache<QueryKey, List<CachedResult>> cache;
+    private final Map<String, QueryTables> queries = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate The connection factory to delegate to
+     * @param configuration The query cache configuration
+     */
+    public QueryCacheConnectionFactory(@NonNull ConnectionFactory delegate,
+                                       @NonNull R2dbcQueryCacheConfiguration configuration) {
+        super(delegate);
+        Set<String> configured = new HashSet<>();
+        for (String table : configuration.getTables()) {
+            configured.add(normalize(table));
+        }
+        this.tables = Collections.unmodifiableSet(configured);
+        this.maxQueries = configuration.getMaxEntries() * 4;
+        this.maxRows = configuration.getMaxRows();
+        this.cache = new QueryResultCache<>(configuration.getMaxEntries(), configuration.getMaxRows(),
+                configuration.getTtl().toNanos());
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(super.create()).map(CachingConnection::new);
+    }
+
+    /**
+     * Removes the cached results reading the given table, for instance after it was written by another application.
+     *
+     * @param table The name of the table
+     */
+    public void invalidate(@NonNull String table) {
+        cache.invalidate(Set.of(normalize(table)));
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return The tables whose queries are cached, lower-cased and without schema
+     */
+    public @NonNull Set<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * @return The number of query executions served from the cache
+     */
+    public long getHits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return The number of cacheable query executions not served from the cache
+     */
+    public long getMisses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return The number of results evicted to respect the maximum number of entries or rows
+     */
+    public long getEvictions() {
+        return cache.evictions();
+    }
+
+    /**
+     * @return The number of results removed by writes to their tables or by explicit invalidations
+     */
+    public long getInvalidations() {
+        return cache.invalidations();
+    }
+
+    /**
+     * @return The number of cached results
+     */
+    public int getSize() {
+        return cache.size();
+    }
+
+    /**
+     * @return The number of cached rows
+     */
+    public long getRows() {
+        return cache.weight();
+    }
+
+    /**
+     * Classifies a statement: a read of the cached tables only, a write to a cached table, or any other statement.
+     * The statements that may write to any table are writes to all the cached tables.
+     */
+    private QueryTables classify(String sql) {
+        QueryTables query = queries.get(sql);
+        if (query == null) {
+            if (queries.size() >= maxQueries) {
+                queries.clear();
+            }
+            query = QueryTables.of(sql);
+            if (query.kind() == QueryTables.Kind.WRITE_ALL) {
+                query = QueryTables.writing(tables);
+            } else if (query.kind() == QueryTables.Kind.READ && !tables.containsAll(query.tables())
+                    || query.kind() == QueryTables.Kind.WRITE && Collections.disjoint(tables, query.tables())) {
+                query = QueryTables.OTHER;
+            }
+            queries.put(sql, query);
+        }
+        return query;
+    }
+
+    /**
+     * Removes the results reading the written tables, or all the results when all the cached tables were written.
+     */
+    private void invalidate(Set<String> written) {
+        if (written.containsAll(tables)) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(written);
+        }
+    }
+
+    private static String normalize(String table) {
+        String name = table.trim().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : name;
+    }
+
+    private static boolean isKeyable(Object value) {
+        return value == NULL || value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?> || value instanceof Temporal
+                || value instanceof UUID;
+    }
+
+    /**
+     * Serves the cached queries of a connection, and collects the tables written by its transaction.
+     */
+    private final class CachingConnection extends DelegatingConnection {
+
+        private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+        CachingConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            QueryTables query = classify(sql);
+            if (query.kind() == QueryTables.Kind.OTHER) {
+                return super.createStatement(sql);
+            }
+            return new CachingStatement(super.createStatement(sql), sql, query, this);
+        }
+
+        @Override
+        public Batch createBatch() {
+            return new InvalidatingBatch(super.createBatch(), this);
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return Mono.from(super.commitTransaction()).doFinally(signal -> flush());
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return Mono.from(super.rollbackTransaction()).doFinally(signal -> flush());
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return Mono.from(super.setAutoCommit(autoCommit)).doFinally(signal -> flush());
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return Mono.from(super.close()).doFinally(signal -> flush());
+        }
+
+        /**
+         * Invalidates the results reading the written tables, once the write is visible to the other connections.
+         */
+        void written(Set<String> tables) {
+            if (isAutoCommit()) {
+                invalidate(tables);
+            } else {
+                written.addAll(tables);
+            }
+        }
+
+        private void flush() {
+            if (!written.isEmpty()) {
+                Set<String> tables = new HashSet<>(written);
+                written.removeAll(tables);
+                invalidate(tables);
+            }
+        }
+    }
+
+    /**
+     * Serves a query from the cache, or invalidates the cache after a write.
+     */
+    private final class CachingStatement extends DelegatingStatement {
+
+        private final String sql;
+        private final QueryTables query;
+        private final CachingConnection connection;
+        private final Map<String, Object> bindings = new HashMap<>();
+        private boolean keyable = true;
+        private boolean batched;
+
+        CachingStatement(Statement delegate, String sql, QueryTables query, CachingConnection connection) {
+            super(delegate);
+            this.sql = sql;
+            this.query = query;
+            this.connection = connection;
+        }
+
+        @Override
+        public Statement add() {
+            batched = true;
+            return super.add();
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            record(String.valueOf(index), value);
+            return super.bind(index, value);
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            record(name, value);
+            return super.bind(name, value);
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            record(String.valueOf(index), NULL);
+            return super.bindNull(index, type);
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            record(name, NULL);
+            return super.bindNull(name, type);
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            if (query.kind() == QueryTables.Kind.WRITE) {
+                return Flux.<Result>from(super.execute())
+                        .<Result>map(result -> new InvalidatingResult(result, connection, query.tables(), new AtomicBoolean()))
+                        .doFinally(signal -> connection.written(query.tables()));
+            }
+            if (batched || !keyable) {
+                return super.execute();
+            }
+            QueryKey key = new QueryKey(sql, new HashMap<>(bindings));
+            return Flux.<Result>defer(() -> {
+                if (!connection.isAutoCommit()) {
+                    return Flux.<Result>from(super.execute());
+                }
+                List<CachedResult> cached = cache.get(key);
+                if (cached != null) {
+                    return Flux.<Result>fromIterable(cached);
+                }
+                Recorder recorder = new Recorder(key, query.tables(), cache.version());
+                return Flux.<Result>from(super.execute())
+                        .<Result>map(result -> new RecordingResult(result, recorder.result()))
+                        .doOnComplete(recorder::executed)
+                        .doOnCancel(recorder::abandon)
+                        .doOnError(e -> recorder.abandon());
+            });
+        }
+
+        private void record(String name, Object value) {
+            Object key = value != null ? value : NULL;
+            keyable &= isKeyable(key);
+            bindings.put(name, key instanceof CharSequence ? key.toString() : key);
+        }
+    }
+
+    /**
+     * Invalidates the cache after the statements of a batch, which are not parsed but may write to cached tables.
+     */
+    private final class InvalidatingBatch implements Batch {
+
+        private final Batch delegate;
+        private final CachingConnection connection;
+        private final Set<String> written = new HashSet<>();
+
+        InvalidatingBatch(Batch delegate, CachingConnection connection) {
+            this.delegate = delegate;
+            this.connection = connection;
+        }
+
+        @Override
+        public Batch add(String sql) {
+            QueryTables query = classify(sql);
+            if (query.kind() == QueryTables.Kind.WRITE) {
+                written.addAll(query.tables());
+            }
+            delegate.add(sql);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            if (written.isEmpty()) {
+                return delegate.execute();
+            }
+            Set<String> tables = Set.copyOf(written);
+            return Flux.<Result>from(delegate.execute())
+                    .<Result>map(result -> new InvalidatingResult(result, connection, tables, new AtomicBoolean()))
+                    .doFinally(signal -> connection.written(tables));
+        }
+    }
+
+    /**
+     * Invalidates the cache again once a result of a write is consumed, as drivers may only apply the write then.
+     */
+    private static final class InvalidatingResult extends DelegatingResult {
+
+        private final CachingConnection connection;
+        private final Set<String> tables;
+        private final AtomicBoolean consumed;
+
+        InvalidatingResult(Result delegate, CachingConnection connection, Set<String> tables, AtomicBoolean consumed) {
+            super(delegate);
+            this.connection = connection;
+            this.tables = tables;
+            this.consumed = consumed;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return consume(super::getRowsUpdated);
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return consume(() -> super.map(mappingFunction));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return consume(() -> super.map(mappingFunction));
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return new InvalidatingResult(super.filter(filter), connection, tables, consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return consume(() -> super.flatMap(mappingFunction));
+        }
+
+        private <T> Flux<T> consume(Supplier<Publisher<T>> publisher) {
+            return Flux.<T>from(publisher.get())
+                    .doFinally(signal -> {
+                        if (consumed.compareAndSet(false, true)) {
+                            connection.written(tables);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * The key of a cached query.
+     */
+    private static final class QueryKey {
+
+        private final String sql;
+        private final Map<String, Object> bindings;
+        private final int hash;
+
+        QueryKey(String sql, Map<String, Object> bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+            this.hash = Objects.hash(sql, bindings);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey other)) {
+                return false;
+            }
+            return hash == other.hash && sql.equals(other.sql) && bindings.equals(other.bindings);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Records the rows of the results of a query while they are consumed, and caches them once every result was
+     * consumed entirely. The recording is abandoned, and the rows recorded so far released, as soon as the query
+     * returns more rows than the cache can hold, a value cannot be cached, or the consumer cancels.
+     */
+    private final class Recorder {
+
+        private final QueryKey key;
+        private final Set<String> tables;
+        private final long version;
+        private final List<CachedResult> results = new ArrayList<>();
+        private long rows;
+        private int pending;
+        private boolean executed;
+        private boolean abandoned;
+
+        Recorder(QueryKey key, Set<String> tables, long version) {
+            this.key = key;
+            this.tables = tables;
+            this.version = version;
+        }
+
+        synchronized CachedResult result() {
+            CachedResult result = new CachedResult(new ArrayList<>(), this);
+            if (!abandoned) {
+                results.add(result);
+                pending++;
+            }
+            return result;
+        }
+
+        synchronized void record(CachedResult result, CachedRow row, boolean cacheable) {
+            if (abandoned) {
+                return;
+            }
+            if (!cacheable || ++rows > maxRows) {
+                abandon();
+                return;
+            }
+            result.rows.add(row);
+        }
+
+        synchronized void consumed() {
+            pending--;
+            put();
+        }
+
+        synchronized void executed() {
+            executed = true;
+            put();
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+            for (CachedResult result : results) {
+                result.rows.clear();
+            }
+            results.clear();
+        }
+
+        private void put() {
+            if (executed && pending == 0 && !abandoned) {
+                cache.put(key, List.copyOf(results), Math.max(1, rows), tables, version);
+                // the results now belong to the cache
+                abandoned = true;
+            }
+        }
+    }
+
+    /**
+     * A result of a query that may be cached, whose rows are read with the default type of the driver, recorded and
+     * converted like the rows of a cached result, so a query returns the same values whether it hits or misses.
+     */
+    private static final class RecordingResult implements Result {
+
+        private final Result delegate;
+        private final CachedResult recorded;
+
+        RecordingResult(Result delegate, CachedResult recorded) {
+            this.delegate = delegate;
+            this.recorded = recorded;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            recorded.recorder.abandon();
+            return delegate.getRowsUpdated();
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return rows().<T>map(row -> mappingFunction.apply(row, row.getMetadata()));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return rows().<T>map(mappingFunction);
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            // the recorded result would miss the filtered segments
+            recorded.recorder.abandon();
+            return delegate.filter(filter);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return rows().<T>concatMap(row -> mappingFunction.apply(row.segment()));
+        }
+
+        private Flux<CachedRow> rows() {
+            Recorder recorder = recorded.recorder;
+            return Flux.<CachedRow>from(delegate.map(recorded::add))
+                    .doOnComplete(recorder::consumed)
+                    .doOnCancel(recorder::abandon)
+                    .doOnError(e -> recorder.abandon());
+        }
+    }
+
+    /**
+     * A result held in memory, which can be replayed any number of times.
+     */
+    private static final class CachedResult implements Result {
+
+        private final List<CachedRow> rows;
+        private final Recorder recorder;
+        private RowMetadata metadata;
+        private Map<String, Integer> columns;
+        private int columnCount;
+
+        private CachedResult(List<CachedRow> rows, Recorder recorder) {
+            this.rows = rows;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return Flux.empty();
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return Flux.fromIterable(rows).<T>map(row -> mappingFunction.apply(row, row.result.metadata));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return Flux.fromIterable(rows).<T>map(mappingFunction);
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            List<CachedRow> filtered = new ArrayList<>(rows.size());
+            for (CachedRow row : rows) {
+                if (filter.test(row.segment())) {
+                    filtered.add(row);
+                }
+            }
+            return new CachedResult(filtered, recorder);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return Flux.fromIterable(rows).<T>concatMap(row -> mappingFunction.apply(row.segment()));
+        }
+
+        /**
+         * Reads a row of the driver and records it. Only immutable values are cached, so cached rows can be shared:
+         * large objects, which are streamed from the database and can only be read once, and mutable values, such as
+         * arrays, are not.
+         */
+        private CachedRow add(Row row, RowMetadata rowMetadata) {
+            if (metadata == null) {
+                metadata = rowMetadata;
+                List<? extends ColumnMetadata> columnMetadatas = rowMetadata.getColumnMetadatas();
+                columns = new HashMap<>();
+                columnCount = columnMetadatas.size();
+                for (int i = columnMetadatas.size() - 1; i >= 0; i--) {
+                    // the first column wins when several have the same name
+                    columns.put(columnMetadatas.get(i).getName().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            Object[] values = new Object[columnCount];
+            boolean cacheable = true;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = row.get(i);
+                cacheable &= isImmutable(values[i]);
+            }
+            CachedRow cached = new CachedRow(this, values);
+            recorder.record(this, cached, cacheable);
+            return cached;
+        }
+
+        private static boolean isImmutable(Object value) {
+            return value == null || value instanceof String || value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte || value instanceof Double || value instanceof Float
+                    || value instanceof BigDecimal || value instanceof BigInteger || value instanceof Boolean
+                    || value instanceof Character || value instanceof UUID || value instanceof Enum<?>
+                    // copied when read
+                    || value instanceof byte[] || value instanceof ByteBuffer
+                    || value.getClass().getPackageName().equals("java.time");
+        }
+    }
+
+    /**
+     * A row of a cached result.
+     */
+    private static final class CachedRow implements Row {
+
+        private final CachedResult result;
+        private final Object[] values;
+
+        CachedRow(CachedResult result, Object[] values) {
+            this.result = result;
+            this.values = values;
+        }
+
+        @Override
+        public RowMetadata getMetadata() {
+            return result.metadata;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            if (index < 0 || index >= values.length) {
+                throw new IndexOutOfBoundsException("Column index " + index + " out of range, the row has " + values.length + " columns");
+            }
+            return convert(values[index], type);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            Integer index = result.columns.get(name.toLowerCase(Locale.ROOT));
+            if (index == null) {
+                throw new NoSuchElementException("No column named " + name);
+            }
+            return convert(values[index], type);
+        }
+
+        Result.Segment segment() {
+            return (Result.RowSegment) () -> this;
+        }
+
+        private static <T> T convert(Object value, Class<T> type) {
+            if (value == null) {
+                return null;
+            }
+            Object copy = value;
+            if (value instanceof ByteBuffer buffer) {
+                copy = buffer.asReadOnlyBuffer();
+            } else if (value instanceof byte[] bytes) {
+                copy = bytes.clone();
+            }
+            if (type.isInstance(copy)) {
+                return type.cast(copy);
+            }
+            return ConversionService.SHARED.convert(copy, type).orElseThrow(() ->
+                    new IllegalArgumentException("Cannot convert cached value of type " + value.getClass().getName() + " to " + type.getName()));
+        }
+    }
+}
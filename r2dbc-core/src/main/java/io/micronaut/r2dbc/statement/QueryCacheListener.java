@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.r2dbc.config.R2dbcQueryCacheConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.inject.Singleton;
+
+import java.util.Optional;
+
+/**
+ * Wraps the {@link ConnectionFactory} of a datasource with the query cache enabled in a
+ * {@link QueryCacheConnectionFactory}. Runs after the other listeners so that the queries served from the cache are
+ * neither observed nor counted as executions.
+ *
+ * @since 5.7.0
+ */
+@Internal
+@Singleton
+final class QueryCacheListener implements BeanCreatedEventListener<ConnectionFactory>, Ordered {
+
+    /**
+     * The order of the listener.
+     */
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 50;
+
+    @Override
+    public ConnectionFactory onCreated(BeanCreatedEvent<ConnectionFactory> event) {
+        String name = event.getBeanIdentifier().getName();
+        Optional<R2dbcQueryCacheConfiguration> configuration = event.getSource().findBean(R2dbcQueryCacheConfiguration.class, Qualifiers.byName(name));
+        if (configuration.isEmpty() || !configuration.get().isEnabled() || configuration.get().getTables().isEmpty()) {
+            return event.getBean();
+        }
+        return new QueryCacheConnectionFactory(event.getBean(), configuration.get());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of query results following the W-TinyLFU policy: new entries enter a small LRU window, and entries
+ * leaving the window are admitted to the main LRU space only if they are used more frequently than the entry they
+ * would evict, as estimated by a {@link FrequencySketch}. The main space is segmented in a probation segment and a
+ * protected segment for the entries used again since their admission. This keeps the popular entries cached while
+ * one-off queries pass through the window.
+ *
+ * <p>Entries expire after the time to live, and are tagged with the tables they read to be invalidated by the
+ * writes to these tables. The cache is guarded by its monitor.</p>
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+final class QueryResultCache<K, V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final int maxWindow;
+    private final int maxProtected;
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    private final Map<String, Set<Node<K, V>>> tags = new HashMap<>();
+    private final Segment<K, V> window = new Segment<>();
+    private final Segment<K, V> probation = new Segment<>();
+    private final Segment<K, V> protectedSegment = new Segment<>();
+    private final FrequencySketch sketch;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long weight;
+    private long version;
+
+    /**
+     * @param maxEntries The maximum number of entries
+     * @param maxWeight The maximum total weight of the entries
+     * @param ttlNanos The time to live of the entries, in nanoseconds
+     */
+    QueryResultCache(int maxEntries, long maxWeight, long ttlNanos) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlNanos;
+        this.maxWindow = Math.max(1, maxEntries / 100);
+        this.maxProtected = Math.max(1, (int) ((maxEntries - maxWindow) * 0.8));
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * @param key The key
+     * @return The value, or null if it is not cached or expired
+     */
+    synchronized V get(K key) {
+        sketch.increment(key.hashCode());
+        Node<K, V> node = data.get(key);
+        if (node != null && System.nanoTime() - node.expiresAt >= 0) {
+            remove(node);
+            node = null;
+        }
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * @return The version to pass to {@link #put(Object, Object, long, Set, long)}, taken before the query executes
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Caches a value, unless an invalidation happened since the given version was taken, as the value may then
+     * predate the write.
+     *
+     * @param key The key
+     * @param value The value
+     * @param weight The weight of the value
+     * @param tables The tables of the value
+     * @param version The version taken before the value was read
+     */
+    synchronized void put(K key, V value, long weight, Set<String> tables, long version) {
+        if (version != this.version || weight > maxWeight) {
+            return;
+        }
+        Node<K, V> existing = data.get(key);
+        if (existing != null) {
+            remove(existing);
+        }
+        Node<K, V> node = new Node<>(key, value, weight, tables, System.nanoTime() + ttlNanos);
+        data.put(key, node);
+        for (String table : tables) {
+            this.tags.computeIfAbsent(table, t -> new HashSet<>()).add(node);
+        }
+        this.weight += weight;
+        node.segment = WINDOW;
+        window.addLast(node);
+        evict();
+    }
+
+    /**
+     * Removes the entries reading the given tables.
+     *
+     * @param tables The tables
+     */
+    synchronized void invalidate(Set<String> tables) {
+        version++;
+        for (String table : tables) {
+            Set<Node<K, V>> nodes = this.tags.get(table);
+            if (nodes != null) {
+                for (Node<K, V> node : new ArrayList<>(nodes)) {
+                    remove(node);
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    synchronized void invalidateAll() {
+        version++;
+        invalidations.add(data.size());
+        data.clear();
+        tags.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return The number of entries
+     */
+    synchronized int size() {
+        return data.size();
+    }
+
+    /**
+     * @return The total weight of the entries
+     */
+    synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * @return The number of lookups that found a value
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that found no value
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries evicted by the size bounds
+     */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of entries removed by writes
+     */
+    long invalidations() {
+        return invalidations.sum();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.segment == WINDOW) {
+            window.moveToLast(node);
+        } else if (node.segment == PROBATION) {
+            probation.remove(node);
+            node.segment = PROTECTED;
+            protectedSegment.addLast(node);
+            if (protectedSegment.size > maxProtected) {
+                Node<K, V> demoted = protectedSegment.first;
+                protectedSegment.remove(demoted);
+                demoted.segment = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            protectedSegment.moveToLast(node);
+        }
+    }
+
+    private void evict() {
+        while (window.size > maxWindow) {
+            Node<K, V> candidate = window.first;
+            window.remove(candidate);
+            candidate.segment = PROBATION;
+            probation.addLast(candidate);
+            if (data.size() > maxEntries || weight > maxWeight) {
+                Node<K, V> victim = probation.first != candidate ? probation.first : protectedSegment.first;
+                if (victim == null) {
+                    evict(candidate);
+                } else if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                    evict(victim);
+                } else {
+                    evict(candidate);
+                }
+            }
+        }
+        // a heavy entry may need several entries to make room
+        while (weight > maxWeight || data.size() > maxEntries) {
+            Node<K, V> victim = probation.first != null ? probation.first
+                    : protectedSegment.first != null ? protectedSegment.first : window.first;
+            evict(victim);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        remove(node);
+        evictions.increment();
+    }
+
+    private void remove(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            weight -= node.weight;
+            segment(node.segment).remove(node);
+            for (String table : node.tables) {
+                Set<Node<K, V>> nodes = tags.get(table);
+                if (nodes != null) {
+                    nodes.remove(node);
+                    if (nodes.isEmpty()) {
+                        tags.remove(table);
+                    }
+                }
+            }
+        }
+    }
+
+    private Segment<K, V> segment(int segment) {
+        return switch (segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedSegment;
+        };
+    }
+
+    /**
+     * A cached value, linked in the list of its segment.
+     *
+     * @param <K> The type of the key
+     * @param <V> The type of the value
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long weight;
+        private final Set<String> tables;
+        private final long expiresAt;
+        private int segment;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        Node(K key, V value, long weight, Set<String> tables, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.tables = tables;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A segment of the cache, ordered from the least to the most recently used node.
+     *
+     * @param <K> The type of the keys
+     * @param <V> The type of the values
+     */
+    private static final class Segment<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+        private int size;
+
+        void addLast(Node<K, V> node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+            size++;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.util.StringUtils;
+import io.micronaut.r2dbc.config.R2dbcQueryStatisticsConfiguration;
+import io.micronaut.r2dbc.support.SqlSanitizer;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates statistics of the queries of all R2DBC datasources, by datasource and SQL with its literals replaced,
+ * in the manner of {@code pg_stat_statements} but in-process. The statistics are recorded with striped counters
+ * and lock-free histograms, so recording does not contend between concurrent executions.
+ *
+ * @see R2dbcQueryStatisticsConfiguration
+ * @since 5.7.0
+ */
+@Singleton
+@Requires(property = R2dbcQueryStatisticsConfiguration.ENABLED, value = StringUtils.TRUE)
+public class QueryStatistics implements StatementExecutionListener {
+
+    /**
+     * The SQL of the statistics aggregating the queries beyond the maximum number of queries.
+     */
+    public static final String OTHER_QUERIES = "<other>";
+
+    private final int maxQueries;
+    private final Map<QueryKey, QueryStatistic> queries = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+
+    /**
+     * @param configuration The query statistics configuration
+     */
+    public QueryStatistics(R2dbcQueryStatisticsConfiguration configuration) {
+        this.maxQueries = configuration.getMaxQueries();
+    }
+
+    @Override
+    public void onExecution(@NonNull StatementExecution execution) {
+        QueryKey key = new QueryKey(execution.getDatasource(), normalize(execution.getSql()));
+        QueryStatistic statistic = queries.get(key);
+        if (statistic == null) {
+            if (queries.size() >= maxQueries) {
+                key = new QueryKey(execution.getDatasource(), OTHER_QUERIES);
+            }
+            statistic = queries.computeIfAbsent(key, QueryStatistic::new);
+        }
+        statistic.record(execution);
+    }
+
+    /**
+     * @return The statistics of the queries, by decreasing total time
+     */
+    public @NonNull List<QueryStatistic> getQueries() {
+        List<QueryStatistic> statistics = new ArrayList<>(queries.values());
+        statistics.sort(Comparator.comparing(QueryStatistic::getTotalTime).reversed());
+        return statistics;
+    }
+
+    /**
+     * Discards the statistics collected so far.
+     */
+    public void reset() {
+        queries.clear();
+    }
+
+    private String normalize(String sql) {
+        String sanitized = normalized.get(sql);
+        if (sanitized == null) {
+            if (normalized.size() >= maxQueries * 4) {
+                normalized.clear();
+            }
+            sanitized = SqlSanitizer.sanitize(sql);
+            normalized.put(sql, sanitized);
+        }
+        return sanitized;
+    }
+
+    /**
+     * The statistics of a query.
+     */
+    public static final class QueryStatistic {
+
+        private final String datasource;
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private QueryStatistic(QueryKey key) {
+            this.datasource = key.datasource;
+            this.sql = key.sql;
+        }
+
+        /**
+         * @return The name of the datasource
+         */
+        public @NonNull String getDatasource() {
+            return datasource;
+        }
+
+        /**
+         * @return The SQL of the query, with its literals replaced
+         */
+        public @NonNull String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return The number of executions
+         */
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        /**
+         * @return The number of failed executions
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * @return The number of rows returned or updated
+         */
+        public long getRows() {
+            return rows.sum();
+        }
+
+        /**
+         * @return The total time of the executions
+         */
+        public @NonNull Duration getTotalTime() {
+            return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(totalMicros.sum()));
+        }
+
+        /**
+         * @return The mean time of the executions
+         */
+        public @NonNull Duration getMeanTime() {
+            long count = calls.sum();
+            return count == 0 ? Duration.ZERO : getTotalTime().dividedBy(count);
+        }
+
+        /**
+         * @return The time of the slowest execution
+         */
+        public @NonNull Duration getMaxTime() {
+            return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(maxMicros.get()));
+        }
+
+        /**
+         * @param percentile The percentile, between 0 and 100
+         * @return The time under which the given percentage of executions completed, precise to about 6%
+         */
+        public @NonNull Duration getPercentile(double percentile) {
+            return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(histogram.percentile(percentile)));
+        }
+
+        private void record(StatementExecution execution) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(execution.getDuration().toNanos());
+            calls.increment();
+            if (execution.getError() != null) {
+                errors.increment();
+            }
+            rows.add(execution.getRows());
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+            histogram.record(micros);
+        }
+    }
+
+    /**
+     * The key of the statistics of a query.
+     */
+    private static final class QueryKey {
+
+        private final String datasource;
+        private final String sql;
+
+        QueryKey(String datasource, String sql) {
+            this.datasource = datasource;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey other)) {
+                return false;
+            }
+            return datasource.equals(other.datasource) && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(datasource, sql);
+        }
+    }
+}
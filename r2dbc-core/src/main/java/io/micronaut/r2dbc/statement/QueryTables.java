@@ -0,0 +1,220 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Extracts the tables read by a {@code SELECT} statement, or written by an {@code INSERT}, {@code UPDATE},
+ * {@code DELETE}, {@code MERGE}, {@code REPLACE} or {@code TRUNCATE} statement, by scanning its tokens. Table names
+ * are lower-cased and stripped of their quotes and schema. Procedure calls and {@code WITH} statements containing
+ * a write may write to any table, and are classified as {@link Kind#WRITE_ALL}. This is not a SQL parser: statements
+ * it cannot make sense of are classified as {@link Kind#OTHER other}, and are neither cached nor invalidating.
+ */
+final class QueryTables {
+
+    /**
+     * The unclassified statements.
+     */
+    static final QueryTables OTHER = new QueryTables(Kind.OTHER, Collections.emptySet());
+
+    /**
+     * The statements writing to unknown tables.
+     */
+    static final QueryTables WRITE_ALL = new QueryTables(Kind.WRITE_ALL, Collections.emptySet());
+
+    private static final Set<String> WRITES = Set.of("insert", "update", "delete", "merge", "replace", "truncate");
+    private static final Set<String> CLAUSES = Set.of("where", "join", "inner", "left", "right", "full", "outer",
+            "cross", "natural", "on", "using", "group", "order", "having", "limit", "offset", "fetch", "for", "union",
+            "intersect", "except", "minus", "window", "set", "values", "select", "returning", "when");
+
+    private final Kind kind;
+    private final Set<String> tables;
+
+    private QueryTables(Kind kind, Set<String> tables) {
+        this.kind = kind;
+        this.tables = tables;
+    }
+
+    /**
+     * @return The kind of statement
+     */
+    Kind kind() {
+        return kind;
+    }
+
+    /**
+     * @return The tables read or written
+     */
+    Set<String> tables() {
+        return tables;
+    }
+
+    /**
+     * @param tables The tables written
+     * @return A write to the given tables
+     */
+    static QueryTables writing(Set<String> tables) {
+        return new QueryTables(Kind.WRITE, tables);
+    }
+
+    /**
+     * @param sql The SQL of a statement
+     * @return The kind and tables of the statement
+     */
+    static QueryTables of(String sql) {
+        List<String> tokens = tokenize(sql);
+        if (tokens.isEmpty()) {
+            return OTHER;
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        switch (tokens.get(0)) {
+            case "select" -> {
+                // whether the tokens are in a FROM clause, by depth of parentheses
+                boolean[] from = new boolean[tokens.size() + 1];
+                int depth = 0;
+                for (int i = 0; i < tokens.size(); i++) {
+                    String token = tokens.get(i);
+                    switch (token) {
+                        case "for", "into" -> {
+                            // locking reads and SELECT INTO are not plain reads
+                            return OTHER;
+                        }
+                        case "(" -> from[++depth] = false;
+                        case ")" -> depth = Math.max(0, depth - 1);
+                        case "from", "join" -> {
+                            from[depth] = true;
+                            table(tokens, i + 1, tables);
+                        }
+                        case "," -> {
+                            if (from[depth]) {
+                                table(tokens, i + 1, tables);
+                            }
+                        }
+                        default -> {
+                            if (CLAUSES.contains(token)) {
+                                from[depth] = false;
+                            }
+                        }
+                    }
+                }
+                return tables.isEmpty() ? OTHER : new QueryTables(Kind.READ, tables);
+            }
+            case "insert", "replace", "merge" -> table(tokens, "into".equals(token(tokens, 1)) ? 2 : 1, tables);
+            case "update" -> table(tokens, 1, tables);
+            case "delete" -> table(tokens, "from".equals(token(tokens, 1)) ? 2 : 1, tables);
+            case "truncate" -> table(tokens, "table".equals(token(tokens, 1)) ? 2 : 1, tables);
+            case "call", "exec", "execute" -> {
+                return WRITE_ALL;
+            }
+            case "with" -> {
+                // the tables of a data-modifying WITH are not extracted, and its reads are not cached
+                for (String token : tokens) {
+                    if (WRITES.contains(token)) {
+                        return WRITE_ALL;
+                    }
+                }
+                return OTHER;
+            }
+            default -> {
+                return OTHER;
+            }
+        }
+        return tables.isEmpty() ? OTHER : new QueryTables(Kind.WRITE, tables);
+    }
+
+    private static void table(List<String> tokens, int index, Set<String> tables) {
+        String token = token(tokens, index);
+        if (token == null || token.length() == 1 && !Character.isLetterOrDigit(token.charAt(0))) {
+            return;
+        }
+        int dot = token.lastIndexOf('.');
+        tables.add(dot >= 0 ? token.substring(dot + 1) : token);
+    }
+
+    private static String token(List<String> tokens, int index) {
+        return index < tokens.size() ? tokens.get(index) : null;
+    }
+
+    /**
+     * Splits the SQL in lower-cased words, quoted identifiers without their quotes, and punctuation, skipping the
+     * comments and the string literals.
+     */
+    private static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'') {
+                int end = i + 1;
+                while (end < length && (sql.charAt(end) != '\'' || end + 1 < length && sql.charAt(end + 1) == '\'')) {
+                    end += sql.charAt(end) == '\'' ? 2 : 1;
+                }
+                i = end + 1;
+            } else if (isIdentifier(c) || c == '"' || c == '`' || c == '[') {
+                StringBuilder word = new StringBuilder();
+                while (i < length) {
+                    char d = sql.charAt(i);
+                    if (d == '"' || d == '`' || d == '[') {
+                        char close = d == '[' ? ']' : d;
+                        int end = sql.indexOf(close, i + 1);
+                        end = end < 0 ? length : end;
+                        word.append(sql, i + 1, end);
+                        i = end + 1;
+                    } else if (isIdentifier(d) || d == '.') {
+                        word.append(d);
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(word.toString().toLowerCase(Locale.ROOT));
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIdentifier(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * The kind of statement.
+     */
+    enum Kind {
+        READ,
+        WRITE,
+        WRITE_ALL,
+        OTHER
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.context.BeanContext;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.inject.qualifiers.Qualifiers;
+import io.micronaut.r2dbc.config.R2dbcSlowQueryLogConfiguration;
+import io.micronaut.r2dbc.support.SqlSanitizer;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs the statements slower than the threshold of their datasource, and keeps the slowest queries of each
+ * datasource in memory, grouped by SQL with its literals replaced.
+ *
+ * @see R2dbcSlowQueryLogConfiguration
+ * @since 5.7.0
+ */
+@Singleton
+public class SlowQueryLog implements StatementExecutionListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final BeanContext beanContext;
+    private final Map<String, Optional<SlowQueries>> datasources = new ConcurrentHashMap<>();
+
+    /**
+     * @param beanContext The bean context
+     */
+    public SlowQueryLog(BeanContext beanContext) {
+        this.beanContext = beanContext;
+    }
+
+    @Override
+    public boolean supports(@NonNull String datasource) {
+        return slowQueries(datasource).isPresent();
+    }
+
+    @Override
+    public boolean requiresBindings(@NonNull String datasource) {
+        // the names of the bindings are logged even when their values are redacted
+        return supports(datasource);
+    }
+
+    @Override
+    public void onExecution(@NonNull StatementExecution execution) {
+        Optional<SlowQueries> slowQueries = slowQueries(execution.getDatasource());
+        if (slowQueries.isEmpty() || execution.getDuration().compareTo(slowQueries.get().configuration.getThreshold()) < 0) {
+            return;
+        }
+        R2dbcSlowQueryLogConfiguration configuration = slowQueries.get().configuration;
+        String sanitized = SqlSanitizer.sanitize(execution.getSql());
+        boolean redact = configuration.isRedactBindings()
+                || ThreadLocalRandom.current().nextDouble() >= configuration.getBindingSampleRate();
+        String bindings = render(execution.getBindings(), redact);
+        if (LOG.isWarnEnabled()) {
+            // literals inlined in the SQL are as sensitive as the bound values
+            LOG.warn("Slow query on R2DBC datasource [{}] took {}ms: {} with bindings {}", execution.getDatasource(),
+                    execution.getDuration().toMillis(), configuration.isRedactBindings() ? sanitized : execution.getSql(), bindings);
+        }
+        slowQueries.get().record(sanitized, execution.getDuration(), bindings);
+    }
+
+    /**
+     * @return The slowest queries by datasource name, slowest first
+     */
+    public @NonNull Map<String, List<SlowQuery>> getSlowestQueries() {
+        Map<String, List<SlowQuery>> slowest = new TreeMap<>();
+        datasources.forEach((name, slowQueries) -> slowQueries.ifPresent(queries -> slowest.put(name, queries.slowest())));
+        return slowest;
+    }
+
+    private Optional<SlowQueries> slowQueries(String datasource) {
+        return datasources.computeIfAbsent(datasource, name -> beanContext
+                .findBean(R2dbcSlowQueryLogConfiguration.class, Qualifiers.byName(name))
+                .filter(R2dbcSlowQueryLogConfiguration::isEnabled)
+                .map(SlowQueries::new));
+    }
+
+    private static String render(Map<String, Object> bindings, boolean redact) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        bindings.forEach((key, value) -> joiner.add(key + "=" + (redact ? "?" : value)));
+        return joiner.toString();
+    }
+
+    /**
+     * A query slower than the threshold.
+     */
+    public static final class SlowQuery {
+
+        private final String sql;
+        private long count;
+        private Duration maxDuration = Duration.ZERO;
+        private Duration lastDuration;
+        private String lastBindings;
+        private Instant lastExecuted;
+
+        private SlowQuery(String sql) {
+            this.sql = sql;
+        }
+
+        /**
+         * @return The SQL of the query, with its literals replaced
+         */
+        public @NonNull String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return The number of slow executions
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The duration of the slowest execution
+         */
+        public @NonNull Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        /**
+         * @return The duration of the last slow execution
+         */
+        public @NonNull Duration getLastDuration() {
+            return lastDuration;
+        }
+
+        /**
+         * @return The bindings of the last slow execution, redacted if configured
+         */
+        public @NonNull String getLastBindings() {
+            return lastBindings;
+        }
+
+        /**
+         * @return The time of the last slow execution
+         */
+        public @NonNull Instant getLastExecuted() {
+            return lastExecuted;
+        }
+
+        private SlowQuery copy() {
+            SlowQuery copy = new SlowQuery(sql);
+            copy.count = count;
+            copy.maxDuration = maxDuration;
+            copy.lastDuration = lastDuration;
+            copy.lastBindings = lastBindings;
+            copy.lastExecuted = lastExecuted;
+            return copy;
+        }
+    }
+
+    /**
+     * The slowest queries of a datasource, bounded to the configured number of queries.
+     */
+    private static final class SlowQueries {
+
+        private final R2dbcSlowQueryLogConfiguration configuration;
+        private final Map<String, SlowQuery> queries = new HashMap<>();
+
+        SlowQueries(R2dbcSlowQueryLogConfiguration configuration) {
+            this.configuration = configuration;
+        }
+
+        synchronized void record(String sql, Duration duration, String bindings) {
+            SlowQuery query = queries.get(sql);
+            if (query == null) {
+                if (queries.size() >= configuration.getTopQueries()) {
+                    SlowQuery fastest = queries.values().stream()
+                            .min(Comparator.comparing(SlowQuery::getMaxDuration))
+                            .orElseThrow();
+                    if (fastest.maxDuration.compareTo(duration) >= 0) {
+                        return;
+                    }
+                    queries.remove(fastest.sql);
+                }
+                query = new SlowQuery(sql);
+                queries.put(sql, query);
+            }
+            query.count++;
+            query.lastDuration = duration;
+            query.lastBindings = bindings;
+            query.lastExecuted = Instant.now();
+            if (duration.compareTo(query.maxDuration) > 0) {
+                query.maxDuration = duration;
+            }
+        }
+
+        synchronized List<SlowQuery> slowest() {
+            List<SlowQuery> slowest = new ArrayList<>(queries.size());
+            for (SlowQuery query : queries.values()) {
+                slowest.add(query.copy());
+            }
+            slowest.sort(Comparator.comparing(SlowQuery::getMaxDuration).reversed());
+            return slowest;
+        }
+    }
+}
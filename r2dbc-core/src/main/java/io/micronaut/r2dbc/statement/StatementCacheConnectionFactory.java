@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ConnectionFactory} that tracks, for each connection, the SQL of the statements it created in a least
+ * recently used cache of the size of the statement cache of the driver. The driver caches the prepared statements
+ * themselves, this factory keeps the hit, miss and eviction statistics that drivers do not expose.
+ *
+ * <p>It decorates the driver connection factory, below the connection pool, so a cache lives as long as the
+ * physical connection.</p>
+ *
+ * @since 5.7.0
+ */
+public class StatementCacheConnectionFactory extends DelegatingConnectionFactory {
+
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param delegate The driver connection factory
+     * @param size The maximum number of statements cached per connection
+     */
+    public StatementCacheConnectionFactory(@NonNull ConnectionFactory delegate, int size) {
+        super(delegate);
+        this.capacity = size;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        if (capacity <= 0) {
+            return super.create();
+        }
+        return Mono.from(super.create()).map(StatementCacheConnection::new);
+    }
+
+    /**
+     * @return The maximum number of statements cached per connection
+     */
+    public int getSize() {
+        return capacity;
+    }
+
+    /**
+     * @return The number of statements created with a SQL that was cached by the connection
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of statements created with a SQL that was not cached by the connection
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of statements evicted from the caches of the connections
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Records the statements created by a connection in a least recently used cache.
+     */
+    private final class StatementCacheConnection extends DelegatingConnection {
+
+        private final Map<String, Boolean> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() > capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        StatementCacheConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            boolean cached;
+            synchronized (statements) {
+                cached = statements.put(sql, Boolean.TRUE) != null;
+            }
+            if (cached) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return super.createStatement(sql);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The execution of a statement, from the subscription to {@link io.r2dbc.spi.Statement#execute()} to the
+ * consumption of its last result.
+ *
+ * @see StatementExecutionListener
+ * @since 5.7.0
+ */
+public final class StatementExecution {
+
+    private final String datasource;
+    private final String sql;
+    private final Map<String, Object> bindings;
+    private final Duration duration;
+    private final long rows;
+    private final Throwable error;
+
+    /**
+     * @param datasource The name of the datasource
+     * @param sql The SQL of the statement
+     * @param bindings The values bound to the statement
+     * @param duration The duration of the execution
+     * @param rows The number of rows returned or updated
+     * @param error The error of the execution, if it failed
+     */
+    public StatementExecution(@NonNull String datasource,
+                              @NonNull String sql,
+                              @NonNull Map<String, Object> bindings,
+                              @NonNull Duration duration,
+                              long rows,
+                              @Nullable Throwable error) {
+        this.datasource = datasource;
+        this.sql = sql;
+        this.bindings = bindings;
+        this.duration = duration;
+        this.rows = rows;
+        this.error = error;
+    }
+
+    /**
+     * @return The name of the datasource
+     */
+    public @NonNull String getDatasource() {
+        return datasource;
+    }
+
+    /**
+     * @return The SQL of the statement
+     */
+    public @NonNull String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return The values bound to the statement, by index or name, of its last binding set. Empty unless a listener
+     * of the datasource {@link StatementExecutionListener#requiresBindings(String) requires} them
+     */
+    public @NonNull Map<String, Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return The duration of the execution
+     */
+    public @NonNull Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return The number of rows returned or updated
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The error of the execution, if it failed
+     */
+    public @Nullable Throwable getError() {
+        return error;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.r2dbc.support.DelegatingConnection;
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory;
+import io.micronaut.r2dbc.support.DelegatingResult;
+import io.micronaut.r2dbc.support.DelegatingStatement;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConnectionFactory} that measures each statement execution, from the subscription to
+ * {@link Statement#execute()} to the consumption of the last row of its results, and notifies the
+ * {@link StatementExecutionListener listeners}.
+ *
+ * @since 5.7.0
+ */
+public class StatementExecutionConnectionFactory extends DelegatingConnectionFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementExecutionConnectionFactory.class);
+
+    private final String name;
+    private final List<StatementExecutionListener> listeners;
+    private final boolean recordBindings;
+
+    /**
+     * @param delegate The connection factory to delegate to
+     * @param name The name of the datasource
+     * @param listeners The listeners to notify
+     */
+    public StatementExecutionConnectionFactory(@NonNull ConnectionFactory delegate,
+                                               @NonNull String name,
+                                               @NonNull List<StatementExecutionListener> listeners) {
+        super(delegate);
+        this.name = name;
+        this.listeners = List.copyOf(listeners);
+        this.recordBindings = this.listeners.stream().anyMatch(listener -> listener.requiresBindings(name));
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(super.create()).map(ExecutionConnection::new);
+    }
+
+    /**
+     * @return The listeners notified of the executions
+     */
+    public @NonNull List<StatementExecutionListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Measures the statements of a connection.
+     */
+    private final class ExecutionConnection extends DelegatingConnection {
+
+        ExecutionConnection(Connection delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new ExecutionStatement(super.createStatement(sql), sql);
+        }
+    }
+
+    /**
+     * Records the bindings of a statement, if a listener reads them, and measures its execution.
+     */
+    private final class ExecutionStatement extends DelegatingStatement {
+
+        private final String sql;
+        private Map<String, Object> bindings;
+
+        ExecutionStatement(Statement delegate, String sql) {
+            super(delegate);
+            this.sql = sql;
+            this.bindings = recordBindings ? new LinkedHashMap<>() : null;
+        }
+
+        @Override
+        public Statement add() {
+            if (recordBindings) {
+                bindings = new LinkedHashMap<>();
+            }
+            return super.add();
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            if (recordBindings) {
+                bindings.put(String.valueOf(index), value);
+            }
+            return super.bind(index, value);
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            if (recordBindings) {
+                bindings.put(name, value);
+            }
+            return super.bind(name, value);
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            if (recordBindings) {
+                bindings.put(String.valueOf(index), null);
+            }
+            return super.bindNull(index, type);
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            if (recordBindings) {
+                bindings.put(name, null);
+            }
+            return super.bindNull(name, type);
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            Map<String, Object> recorded = recordBindings
+                    ? Collections.unmodifiableMap(new LinkedHashMap<>(bindings))
+                    : Collections.emptyMap();
+            return Flux.defer(() -> {
+                Execution execution = new Execution(sql, recorded);
+                return Flux.<Result>from(super.execute())
+                        .<Result>map(result -> execution.track(result))
+                        .doOnError(execution::onError)
+                        .doFinally(signal -> execution.release());
+            });
+        }
+    }
+
+    /**
+     * An execution in progress, complete once the statement and each of its results are consumed.
+     */
+    private final class Execution {
+
+        private final String sql;
+        private final Map<String, Object> bindings;
+        private final long start = System.nanoTime();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicLong rows = new AtomicLong();
+        private volatile Throwable error;
+
+        Execution(String sql, Map<String, Object> bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+
+        Result track(Result result) {
+            pending.incrementAndGet();
+            return new ExecutionResult(result, this, new AtomicBoolean());
+        }
+
+        void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        void addRows(long count) {
+            rows.addAndGet(count);
+        }
+
+        void release() {
+            if (pending.decrementAndGet() == 0) {
+                StatementExecution execution = new StatementExecution(name, sql, bindings,
+                        Duration.ofNanos(System.nanoTime() - start), rows.get(), error);
+                for (StatementExecutionListener listener : listeners) {
+                    try {
+                        listener.onExecution(execution);
+                    } catch (RuntimeException e) {
+                        if (LOG.isErrorEnabled()) {
+                            LOG.error("Statement execution listener {} failed: {}", listener, e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the rows of a result and releases the execution once the result is consumed.
+     */
+    private static final class ExecutionResult extends DelegatingResult {
+
+        private final Execution execution;
+        private final AtomicBoolean consumed;
+
+        ExecutionResult(Result delegate, Execution execution, AtomicBoolean consumed) {
+            super(delegate);
+            this.execution = execution;
+            this.consumed = consumed;
+        }
+
+        @Override
+        public Publisher<Long> getRowsUpdated() {
+            return consume(() -> Flux.from(super.getRowsUpdated()).doOnNext(execution::addRows));
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            return consume(() -> Flux.<T>from(super.map(mappingFunction)).doOnNext(row -> execution.addRows(1)));
+        }
+
+        @Override
+        public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+            return consume(() -> Flux.<T>from(super.map(mappingFunction)).doOnNext(row -> execution.addRows(1)));
+        }
+
+        @Override
+        public Result filter(Predicate<Segment> filter) {
+            return new ExecutionResult(super.filter(filter), execution, consumed);
+        }
+
+        @Override
+        public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+            return consume(() -> super.flatMap(segment -> {
+                if (segment instanceof RowSegment) {
+                    execution.addRows(1);
+                } else if (segment instanceof UpdateCount updateCount) {
+                    execution.addRows(updateCount.value());
+                }
+                return mappingFunction.apply(segment);
+            }));
+        }
+
+        private <T> Flux<T> consume(Supplier<Publisher<T>> publisher) {
+            return Flux.<T>from(publisher.get())
+                    .doOnError(execution::onError)
+                    .doFinally(signal -> {
+                        if (consumed.compareAndSet(false, true)) {
+                            execution.release();
+                        }
+                    });
+        }
+    }
+}
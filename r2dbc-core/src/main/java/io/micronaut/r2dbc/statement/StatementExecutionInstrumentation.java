@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.core.annotation.Internal;
+import io.micronaut.core.order.Ordered;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+
+/**
+ * Wraps the {@link ConnectionFactory} of a datasource in a {@link StatementExecutionConnectionFactory} if a
+ * {@link StatementExecutionListener} supports it.
+ *
+ * @since 5.7.0
+ */
+@Internal
+@Singleton
+final class StatementExecutionInstrumentation implements BeanCreatedEventListener<ConnectionFactory>, Ordered {
+
+    /**
+     * The order of the listener.
+     */
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE - 300;
+
+    private final List<StatementExecutionListener> listeners;
+
+    StatementExecutionInstrumentation(List<StatementExecutionListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public ConnectionFactory onCreated(BeanCreatedEvent<ConnectionFactory> event) {
+        String name = event.getBeanIdentifier().getName();
+        List<StatementExecutionListener> supported = listeners.stream()
+                .filter(listener -> listener.supports(name))
+                .toList();
+        if (supported.isEmpty()) {
+            return event.getBean();
+        }
+        return new StatementExecutionConnectionFactory(event.getBean(), name, supported);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
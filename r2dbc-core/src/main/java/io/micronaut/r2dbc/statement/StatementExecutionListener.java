@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.statement;
+
+import io.micronaut.core.annotation.NonNull;
+
+/**
+ * A bean notified of the statement executions of the R2DBC datasources. The connection factory of a datasource is
+ * only instrumented if at least one listener {@link #supports(String) supports} it.
+ *
+ * @since 5.7.0
+ */
+public interface StatementExecutionListener {
+
+    /**
+     * @param datasource The name of the datasource
+     * @return Whether the listener is notified of the executions of the datasource
+     */
+    default boolean supports(@NonNull String datasource) {
+        return true;
+    }
+
+    /**
+     * @param datasource The name of the datasource
+     * @return Whether the listener reads the {@link StatementExecution#getBindings() bindings} of the executions of
+     * the datasource. The bindings are only recorded if a listener of the datasource reads them, and are empty
+     * otherwise.
+     */
+    default boolean requiresBindings(@NonNull String datasource) {
+        return false;
+    }
+
+    /**
+     * Called once a statement is executed and its results are consumed. Must not block.
+     *
+     * @param execution The execution
+     */
+    void onExecution(@NonNull StatementExecution execution);
+}
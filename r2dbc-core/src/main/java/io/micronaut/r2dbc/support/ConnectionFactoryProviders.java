@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ConnectionFactoryProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the {@link ConnectionFactoryProvider} of the driver of a datasource directly by its driver name.
+ * {@link ConnectionFactories#get(ConnectionFactoryOptions)} loads and instantiates every provider of the classpath
+ * with a {@link ServiceLoader}, and asks each of them whether it supports the options, on each call.
+ *
+ * <p>The providers of the drivers supported by this module are indexed by driver name when it is built, in
+ * {@value #INDEX}, so that only the provider of the driver of the datasource is loaded and instantiated. Applications
+ * can index other drivers with their own {@value #INDEX} resource, whose lines map a driver name to the
+ * comma-separated class names of its providers. Drivers missing from the indexes, or whose indexed providers are not
+ * on the classpath, are resolved by loading every provider once.</p>
+ *
+ * @since 5.7.0
+ */
+public final class ConnectionFactoryProviders {
+
+    /**
+     * The resource indexing the providers by driver name.
+     */
+    public static final String INDEX = "META-INF/r2dbc/connection-factory-providers.properties";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionFactoryProviders.class);
+
+    private static final Map<String, List<ConnectionFactoryProvider>> RESOLVED = new ConcurrentHashMap<>();
+    private static final AtomicInteger FALLBACKS = new AtomicInteger();
+    private static volatile Map<String, Set<String>> index;
+    private static volatile Map<String, List<ConnectionFactoryProvider>> scanned;
+
+    private ConnectionFactoryProviders() {
+    }
+
+    /**
+     * Creates a connection factory with the provider of the driver of the options, falling back to
+     * {@link ConnectionFactories#get(ConnectionFactoryOptions)} if none supports the options.
+     *
+     * @param options The options
+     * @return The connection factory
+     */
+    public static @NonNull ConnectionFactory create(@NonNull ConnectionFactoryOptions options) {
+        Optional<ConnectionFactoryProvider> provider = find(options);
+        if (provider.isPresent()) {
+            return provider.get().create(options);
+        }
+        return ConnectionFactories.get(options);
+    }
+
+    /**
+     * @param options The options
+     * @return The provider of the driver of the options supporting them, if any
+     */
+    public static @NonNull Optional<ConnectionFactoryProvider> find(@NonNull ConnectionFactoryOptions options) {
+        Object driver = options.getValue(ConnectionFactoryOptions.DRIVER);
+        if (driver == null) {
+            return Optional.empty();
+        }
+        for (ConnectionFactoryProvider provider : RESOLVED.computeIfAbsent(driver.toString(), ConnectionFactoryProviders::resolve)) {
+            if (provider.supports(options)) {
+                return Optional.of(provider);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return The number of drivers resolved by loading every provider, as they were missing from the indexes or
+     * their indexed providers were not available
+     */
+    public static int getFallbacks() {
+        return FALLBACKS.get();
+    }
+
+    private static List<ConnectionFactoryProvider> resolve(String driver) {
+        List<ConnectionFactoryProvider> providers = new ArrayList<>();
+        for (String className : index().getOrDefault(driver, Collections.emptySet())) {
+            try {
+                Class<?> type = Class.forName(className, false, classLoader());
+                if (ConnectionFactoryProvider.class.isAssignableFrom(type)) {
+                    providers.add((ConnectionFactoryProvider) type.getDeclaredConstructor().newInstance());
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // the driver is not on the classpath, or not instantiable reflectively in a native image
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("Indexed R2DBC provider {} of driver {} is not available: {}", className, driver, e.toString());
+                }
+            }
+        }
+        if (providers.isEmpty()) {
+            FALLBACKS.incrementAndGet();
+            providers = scanned().getOrDefault(driver, Collections.emptyList());
+        }
+        return providers;
+    }
+
+    private static Map<String, Set<String>> index() {
+        Map<String, Set<String>> loaded = index;
+        if (loaded == null) {
+            synchronized (ConnectionFactoryProviders.class) {
+                loaded = index;
+                if (loaded == null) {
+                    loaded = new HashMap<>();
+                    try {
+                        Enumeration<URL> resources = classLoader().getResources(INDEX);
+                        while (resources.hasMoreElements()) {
+                            Properties properties = new Properties();
+                            try (InputStream in = resources.nextElement().openStream()) {
+                                properties.load(in);
+                            }
+                            for (String driver : properties.stringPropertyNames()) {
+                                Set<String> classNames = loaded.computeIfAbsent(driver, d -> new LinkedHashSet<>());
+                                for (String className : properties.getProperty(driver).split(",")) {
+                                    if (!className.isBlank()) {
+                                        classNames.add(className.trim());
+                                    }
+                                }
+                            }
+                        }
+                    } catch (IOException e) {
+                        if (LOG.isWarnEnabled()) {
+                            LOG.warn("Failed to read the R2DBC provider index {}: {}", INDEX, e.getMessage());
+                        }
+                    }
+                    index = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static Map<String, List<ConnectionFactoryProvider>> scanned() {
+        Map<String, List<ConnectionFactoryProvider>> loaded = scanned;
+        if (loaded == null) {
+            synchronized (ConnectionFactoryProviders.class) {
+                loaded = scanned;
+                if (loaded == null) {
+                    loaded = new HashMap<>();
+                    for (ConnectionFactoryProvider provider : ServiceLoader.load(ConnectionFactoryProvider.class, classLoader())) {
+                        loaded.computeIfAbsent(provider.getDriver(), driver -> new ArrayList<>()).add(provider);
+                    }
+                    scanned = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static ClassLoader classLoader() {
+        // the class loader used by ConnectionFactories
+        return ConnectionFactories.class.getClassLoader();
+    }
+}
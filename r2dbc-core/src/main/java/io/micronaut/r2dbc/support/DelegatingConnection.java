@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.TransactionDefinition;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A {@link Connection} that delegates to another connection. Subclasses override the methods they decorate.
+ *
+ * @since 5.7.0
+ */
+public class DelegatingConnection implements Connection, Wrapped<Connection> {
+
+    private final Connection delegate;
+
+    /**
+     * @param delegate The connection to delegate to
+     */
+    public DelegatingConnection(@NonNull Connection delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction() {
+        return delegate.beginTransaction();
+    }
+
+    @Override
+    public Publisher<Void> beginTransaction(TransactionDefinition definition) {
+        return delegate.beginTransaction(definition);
+    }
+
+    @Override
+    public Publisher<Void> close() {
+        return delegate.close();
+    }
+
+    @Override
+    public Publisher<Void> commitTransaction() {
+        return delegate.commitTransaction();
+    }
+
+    @Override
+    public Batch createBatch() {
+        return delegate.createBatch();
+    }
+
+    @Override
+    public Publisher<Void> createSavepoint(String name) {
+        return delegate.createSavepoint(name);
+    }
+
+    @Override
+    public Statement createStatement(String sql) {
+        return delegate.createStatement(sql);
+    }
+
+    @Override
+    public boolean isAutoCommit() {
+        return delegate.isAutoCommit();
+    }
+
+    @Override
+    public ConnectionMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public IsolationLevel getTransactionIsolationLevel() {
+        return delegate.getTransactionIsolationLevel();
+    }
+
+    @Override
+    public Publisher<Void> releaseSavepoint(String name) {
+        return delegate.releaseSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransaction() {
+        return delegate.rollbackTransaction();
+    }
+
+    @Override
+    public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+        return delegate.rollbackTransactionToSavepoint(name);
+    }
+
+    @Override
+    public Publisher<Void> setAutoCommit(boolean autoCommit) {
+        return delegate.setAutoCommit(autoCommit);
+    }
+
+    @Override
+    public Publisher<Void> setLockWaitTimeout(Duration timeout) {
+        return delegate.setLockWaitTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setStatementTimeout(Duration timeout) {
+        return delegate.setStatementTimeout(timeout);
+    }
+
+    @Override
+    public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+        return delegate.setTransactionIsolationLevel(isolationLevel);
+    }
+
+    @Override
+    public Publisher<Boolean> validate(ValidationDepth depth) {
+        return delegate.validate(depth);
+    }
+
+    @Override
+    public Connection unwrap() {
+        return delegate;
+    }
+}
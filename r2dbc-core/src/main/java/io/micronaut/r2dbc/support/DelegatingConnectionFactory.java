@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link ConnectionFactory} that delegates to another connection factory. Subclasses override the methods
+ * they decorate.
+ *
+ * @since 5.7.0
+ */
+public class DelegatingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+
+    /**
+     * @param delegate The connection factory to delegate to
+     */
+    public DelegatingConnectionFactory(@NonNull ConnectionFactory delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return delegate.create();
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    /**
+     * Finds the first connection factory of the given type in a chain of {@link Wrapped} connection factories,
+     * starting with the given connection factory itself.
+     *
+     * @param connectionFactory The connection factory
+     * @param type The type to look for
+     * @param <T> The type
+     * @return The connection factory of the given type, if any
+     */
+    public static <T> Optional<T> find(@NonNull ConnectionFactory connectionFactory, @NonNull Class<T> type) {
+        Object current = connectionFactory;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return Optional.of(type.cast(current));
+            }
+            if (current instanceof Wrapped<?> wrapped && wrapped.unwrap() != current) {
+                current = wrapped.unwrap();
+            } else {
+                current = null;
+            }
+        }
+        return Optional.empty();
+    }
+}
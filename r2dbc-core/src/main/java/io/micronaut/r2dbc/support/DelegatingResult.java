@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Result} that delegates to another result. Subclasses override the methods they decorate.
+ *
+ * @since 5.7.0
+ */
+public class DelegatingResult implements Result, Wrapped<Result> {
+
+    private final Result delegate;
+
+    /**
+     * @param delegate The result to delegate to
+     */
+    public DelegatingResult(@NonNull Result delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    @Override
+    public Publisher<Long> getRowsUpdated() {
+        return delegate.getRowsUpdated();
+    }
+
+    @Override
+    public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+        return delegate.map(mappingFunction);
+    }
+
+    @Override
+    public <T> Publisher<T> map(Function<? super Readable, ? extends T> mappingFunction) {
+        return delegate.map(mappingFunction);
+    }
+
+    @Override
+    public Result filter(Predicate<Segment> filter) {
+        return delegate.filter(filter);
+    }
+
+    @Override
+    public <T> Publisher<T> flatMap(Function<Segment, ? extends Publisher<? extends T>> mappingFunction) {
+        return delegate.flatMap(mappingFunction);
+    }
+
+    @Override
+    public Result unwrap() {
+        return delegate;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+
+import java.util.Objects;
+
+/**
+ * A {@link Statement} that delegates to another statement. The binding methods return this statement, so that the
+ * decoration is kept when they are chained. Subclasses override the methods they decorate.
+ *
+ * @since 5.7.0
+ */
+public class DelegatingStatement implements Statement, Wrapped<Statement> {
+
+    private final Statement delegate;
+
+    /**
+     * @param delegate The statement to delegate to
+     */
+    public DelegatingStatement(@NonNull Statement delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+    }
+
+    @Override
+    public Statement add() {
+        delegate.add();
+        return this;
+    }
+
+    @Override
+    public Statement bind(int index, Object value) {
+        delegate.bind(index, value);
+        return this;
+    }
+
+    @Override
+    public Statement bind(String name, Object value) {
+        delegate.bind(name, value);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(int index, Class<?> type) {
+        delegate.bindNull(index, type);
+        return this;
+    }
+
+    @Override
+    public Statement bindNull(String name, Class<?> type) {
+        delegate.bindNull(name, type);
+        return this;
+    }
+
+    @Override
+    public Publisher<? extends Result> execute() {
+        return delegate.execute();
+    }
+
+    @Override
+    public Statement returnGeneratedValues(String... columns) {
+        delegate.returnGeneratedValues(columns);
+        return this;
+    }
+
+    @Override
+    public Statement fetchSize(int rows) {
+        delegate.fetchSize(rows);
+        return this;
+    }
+
+    @Override
+    public Statement unwrap() {
+        return delegate;
+    }
+}
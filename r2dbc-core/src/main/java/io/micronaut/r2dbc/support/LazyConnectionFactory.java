@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConnectionFactory} that creates the connection factory it delegates to on the first connection acquisition,
+ * rather than while the application context starts. If the creation fails, the next acquisition tries again. The
+ * first acquisition creates the connection factory on the bounded elastic scheduler, as loading the driver blocks, so
+ * it can be subscribed to on an event loop; the following ones acquire on the subscribing thread.
+ *
+ * <p>Until the connection factory is created, {@link #getMetadata()} returns the given metadata and {@link #unwrap()}
+ * returns {@code null}, so looking up the decorated connection factories does not create it. The given metadata
+ * usually names the configured driver, such as {@code postgresql}, while the driver names its product, such as
+ * {@code PostgreSQL}: the names captured before and after the creation, for instance as tags, may differ.</p>
+ *
+ * @see io.micronaut.r2dbc.config.InitializationMode#LAZY
+ * @since 5.7.0
+ */
+public final class LazyConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LazyConnectionFactory.class);
+
+    private final String name;
+    private final ConnectionFactoryMetadata metadata;
+    private final Supplier<ConnectionFactory> factory;
+    private final List<Consumer<ConnectionFactory>> callbacks = new ArrayList<>();
+    private volatile ConnectionFactory delegate;
+    private volatile boolean disposed;
+
+    /**
+     * @param name The name of the datasource
+     * @param metadata The metadata until the connection factory is created
+     * @param factory Creates the connection factory
+     */
+    public LazyConnectionFactory(@NonNull String name,
+                                 @NonNull ConnectionFactoryMetadata metadata,
+                                 @NonNull Supplier<ConnectionFactory> factory) {
+        this.name = name;
+        this.metadata = Objects.requireNonNull(metadata, "metadata");
+        this.factory = Objects.requireNonNull(factory, "factory");
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            ConnectionFactory current = delegate;
+            if (current != null) {
+                return Mono.from(current.create());
+            }
+            return Mono.fromCallable(this::initialize)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(connectionFactory -> Mono.from(connectionFactory.create()));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        ConnectionFactory current = delegate;
+        return current != null ? current.getMetadata() : metadata;
+    }
+
+    /**
+     * @return The connection factory, or {@code null} if it is not created yet
+     */
+    @Override
+    public @Nullable ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    /**
+     * @return Whether the connection factory is created
+     */
+    public boolean isInitialized() {
+        return delegate != null;
+    }
+
+    /**
+     * Creates the connection factory, unless it is created already.
+     *
+     * @return The connection factory
+     */
+    public @NonNull ConnectionFactory initialize() {
+        ConnectionFactory current = delegate;
+        if (current != null) {
+            return current;
+        }
+        List<Consumer<ConnectionFactory>> pending;
+        synchronized (this) {
+            current = delegate;
+            if (current != null) {
+                return current;
+            }
+            if (disposed) {
+                throw new IllegalStateException("R2DBC datasource [" + name + "] is closed");
+            }
+            long start = System.nanoTime();
+            current = Objects.requireNonNull(factory.get(), "connection factory");
+            delegate = current;
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Initialized R2DBC datasource [{}] in {}ms", name, (System.nanoTime() - start) / 1_000_000);
+            }
+            pending = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        for (Consumer<ConnectionFactory> callback : pending) {
+            notify(callback, current);
+        }
+        return current;
+    }
+
+    /**
+     * Calls the given callback with the connection factory once it is created, immediately if it is created already.
+     *
+     * @param callback The callback
+     */
+    public void whenInitialized(@NonNull Consumer<ConnectionFactory> callback) {
+        ConnectionFactory current;
+        synchronized (this) {
+            current = delegate;
+            if (current == null) {
+                callbacks.add(callback);
+                return;
+            }
+        }
+        notify(callback, current);
+    }
+
+    @Override
+    public void dispose() {
+        ConnectionFactory current;
+        synchronized (this) {
+            disposed = true;
+            callbacks.clear();
+            current = delegate;
+        }
+        if (current instanceof Disposable disposable && !disposable.isDisposed()) {
+            disposable.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    private void notify(Consumer<ConnectionFactory> callback, ConnectionFactory connectionFactory) {
+        try {
+            callback.accept(connectionFactory);
+        } catch (RuntimeException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error("Initialization callback of R2DBC datasource [{}] failed: {}", name, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micronaut.r2dbc.support;
+
+import io.micronaut.core.annotation.NonNull;
+
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the literals of a SQL statement with {@code ?}, so that it can be recorded without the values it
+ * contains.
+ *
+ * @since 5.7.0
+ */
+public final class SqlSanitizer {
+
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|(?<![\\w$:@])\\d+(?:\\.\\d+)?\\b");
+
+    private SqlSanitizer() {
+    }
+
+    /**
+     * @param sql The SQL statement
+     * @return The statement with its string and numeric literals replaced with {@code ?}
+     */
+    public static @NonNull String sanitize(@NonNull String sql) {
+        return LITERALS.matcher(sql).replaceAll("?");
+    }
+}
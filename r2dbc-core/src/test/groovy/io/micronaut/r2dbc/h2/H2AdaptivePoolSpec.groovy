@@ -0,0 +1,65 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///adaptivedb")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "2")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "8")
+@Property(name = "r2dbc.datasources.default.pool.adaptive.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.pool.adaptive.host-max-size", value = "3")
+@Property(name = "r2dbc.datasources.other.url", value = "r2dbc:h2:mem:///adaptiveotherdb")
+@Property(name = "r2dbc.datasources.other.pool.initial-size", value = "2")
+@Property(name = "r2dbc.datasources.other.pool.max-size", value = "8")
+@Property(name = "r2dbc.datasources.other.pool.adaptive.enabled", value = "true")
+@Property(name = "r2dbc.datasources.other.pool.adaptive.host-max-size", value = "3")
+class H2AdaptivePoolSpec extends Specification {
+    @Inject
+    ApplicationContext context
+
+    void 'test adaptive pools share the limit of their host'() {
+        given:
+        R2dbcConnectionPool first = pool("default")
+        R2dbcConnectionPool second = pool("other")
+
+        expect:
+        first.concurrencyLimit >= 1
+        second.concurrencyLimit >= 1
+        first.concurrencyLimit + second.concurrencyLimit == 3
+
+        when:
+        List<Long> values = Flux.range(1, 50)
+                .flatMap({ i -> query(context.getBean(ConnectionFactory, Qualifiers.byName("default"))) }, 8)
+                .collectList()
+                .block()
+
+        then:
+        values.size() == 50
+        first.concurrencyLimit >= 1
+        first.concurrencyLimit + second.concurrencyLimit <= 3
+    }
+
+    private R2dbcConnectionPool pool(String name) {
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName(name))
+        return DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool).get()
+    }
+
+    private static Flux<Long> query(ConnectionFactory connectionFactory) {
+        return Flux.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement("SELECT 1").execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                },
+                { Connection c -> c.close() })
+    }
+}
@@ -0,0 +1,75 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.statement.BatchingConnectionFactory
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///batchingdb;DB_CLOSE_DELAY=-1")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "10")
+@Property(name = "r2dbc.datasources.default.batching.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.batching.max-size", value = "5")
+@Property(name = "r2dbc.datasources.default.batching.max-delay", value = "500ms")
+class H2BatchingSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test concurrent inserts are executed as batches'() {
+        given:
+        BatchingConnectionFactory batching = DelegatingConnectionFactory.find(connectionFactory, BatchingConnectionFactory).get()
+        execute("CREATE TABLE IF NOT EXISTS book(id INT PRIMARY KEY, title VARCHAR(255))").block()
+
+        when:
+        List<Long> counts = Flux.range(0, 10)
+                .flatMap({ i -> insert(i) }, 10)
+                .collectList()
+                .block()
+
+        then:
+        counts == [1L] * 10
+        batching.batchedStatements == 10
+        batching.batches < 10
+        execute("SELECT COUNT(*) FROM book").block() == 10
+    }
+
+    void 'test inserts are not batched when batching is disabled in the context'() {
+        given:
+        BatchingConnectionFactory batching = DelegatingConnectionFactory.find(connectionFactory, BatchingConnectionFactory).get()
+        long batched = batching.batchedStatements
+
+        when:
+        Long count = insert(100).contextWrite(BatchingConnectionFactory::withoutBatching).block()
+
+        then:
+        count == 1
+        batching.batchedStatements == batched
+    }
+
+    private Mono<Long> insert(int id) {
+        return Mono.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement("INSERT INTO book VALUES(\$1, \$2)").bind(0, id).bind(1, "Book " + id).execute())
+                            .flatMap { result -> result.getRowsUpdated() }
+                            .next()
+                },
+                { Connection c -> c.close() })
+    }
+
+    private Mono<Object> execute(String sql) {
+        return Mono.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement(sql).execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0) } }
+                            .defaultIfEmpty(0)
+                            .next()
+                },
+                { Connection c -> c.close() })
+    }
+}
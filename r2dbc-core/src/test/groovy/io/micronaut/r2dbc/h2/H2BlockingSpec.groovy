@@ -0,0 +1,52 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.blocking.BlockingConnection
+import io.micronaut.r2dbc.blocking.BlockingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+import java.util.stream.Collectors
+import java.util.stream.Stream
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///blockingdb")
+@Property(name = "r2dbc.datasources.default.options.DB_CLOSE_DELAY", value = "-1")
+class H2BlockingSpec extends Specification {
+    @Inject
+    BlockingConnectionFactory blockingConnectionFactory
+
+    void 'test statements are executed and rows streamed without Reactor'() {
+        given:
+        BlockingConnection connection = blockingConnectionFactory.getConnection()
+
+        when:
+        connection.createStatement("CREATE TABLE blocking_item(id INT)").execute()
+        long inserted = connection.createStatement("INSERT INTO blocking_item VALUES (\$1)")
+                .bind(0, 1).add()
+                .bind(0, 2).add()
+                .bind(0, 3)
+                .execute()
+
+        then:
+        inserted == 3
+
+        when:
+        Stream<Integer> ids = connection.createStatement("SELECT id FROM blocking_item ORDER BY id")
+                .query({ row, metadata -> row.get(0, Integer) }, 1)
+
+        then:
+        ids.withCloseable { it.collect(Collectors.toList()) } == [1, 2, 3]
+
+        cleanup:
+        connection.close()
+    }
+
+    void 'test connections are closed after the callback'() {
+        expect:
+        blockingConnectionFactory.withConnection { c ->
+            c.createStatement("SELECT 1").query { row, metadata -> row.get(0, Integer) }.withCloseable { it.findFirst().get() }
+        } == 1
+    }
+}
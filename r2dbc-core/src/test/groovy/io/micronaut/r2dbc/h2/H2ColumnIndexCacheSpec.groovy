@@ -0,0 +1,65 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.query.ColumnIndexCache
+import io.micronaut.r2dbc.query.RowMapper
+import io.micronaut.r2dbc.query.StreamingQuery
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.ColumnMetadata
+import io.r2dbc.spi.ConnectionFactory
+import io.r2dbc.spi.RowMetadata
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///columnindexdb")
+class H2ColumnIndexCacheSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test column indexes are resolved once per shape with a bounded cache'() {
+        given:
+        ColumnIndexCache cache = new ColumnIndexCache(1)
+        RowMapper<String> mapper = cache.mapper { row, columns ->
+            columns.get(row, "name", String) + columns.get(row, "Id", Long)
+        }
+
+        expect:
+        query("SELECT X AS ID, 'a' AS NAME FROM SYSTEM_RANGE(1, 2)", mapper) == ['a1', 'a2']
+        cache.size() == 1
+        query("SELECT 'b' AS NAME, X AS ID FROM SYSTEM_RANGE(1, 2)", mapper) == ['b1', 'b2']
+        cache.size() == 1
+
+        when:
+        query("SELECT 1 AS ID", mapper)
+
+        then:
+        thrown(NoSuchElementException)
+    }
+
+    void 'test the columns of interleaved results are resolved once per result'() {
+        given:
+        ColumnIndexCache cache = new ColumnIndexCache()
+        RowMetadata first = metadata("id", "name")
+        RowMetadata second = metadata("name")
+        Object plan = cache.columns(first).derive("plan") { new Object() }
+
+        when:
+        ColumnIndexCache.Columns other = cache.columns(second)
+
+        then:
+        cache.columns(first).derive("plan") { new Object() }.is(plan)
+        cache.columns(first).indexOf("NAME") == 1
+        other.indexOf("NAME") == 0
+        cache.size() == 2
+    }
+
+    private RowMetadata metadata(String... names) {
+        List<ColumnMetadata> columns = names.collect { name -> Stub(ColumnMetadata) { getName() >> name } }
+        return Stub(RowMetadata) { getColumnMetadatas() >> columns }
+    }
+
+    private List<String> query(String sql, RowMapper<String> mapper) {
+        return StreamingQuery.of(sql).stream(connectionFactory, mapper).collectList().block()
+    }
+}
@@ -0,0 +1,53 @@
+package io.micronaut.r2dbc.h2
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.metrics.R2dbcConnectionPoolMetricsBinder
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.pool.PoolMetrics
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///leakdb")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "1")
+@Property(name = "r2dbc.datasources.default.pool.leak-detection-threshold", value = "200ms")
+@Property(name = "r2dbc.datasources.default.pool.leak-detection-force-close", value = "true")
+class H2ConnectionPoolLeakDetectionSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    R2dbcConnectionPoolMetricsBinder binder
+
+    void 'test leaked connections are reported and closed'() {
+        given:
+        SimpleMeterRegistry registry = new SimpleMeterRegistry()
+        binder.bindTo(registry)
+        R2dbcConnectionPool pool = DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool).get()
+
+        when:
+        Connection leaked = Mono.from(connectionFactory.create()).block()
+
+        then:
+        pool.metrics.map(PoolMetrics::acquiredSize).orElse(0) == 1
+
+        and:
+        new PollingConditions(timeout: 5).eventually {
+            assert registry.get("r2dbc.pool.leaks").tag("name", "default").tag("closed", "true").counter().count() == 1
+            assert pool.metrics.map(PoolMetrics::acquiredSize).orElse(0) == 0
+        }
+
+        when:
+        Mono.from(leaked.close()).block()
+
+        then:
+        registry.get("r2dbc.pool.leaks").tag("name", "default").tag("closed", "true").counter().count() == 1
+    }
+}
@@ -0,0 +1,44 @@
+package io.micronaut.r2dbc.h2
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.metrics.R2dbcConnectionPoolMetricsBinder
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///metricsdb")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "1")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "4")
+class H2ConnectionPoolMetricsSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    R2dbcConnectionPoolMetricsBinder binder
+
+    void 'test pool metrics are tagged by datasource name'() {
+        given:
+        SimpleMeterRegistry registry = new SimpleMeterRegistry()
+        binder.bindTo(registry)
+
+        when:
+        Connection connection = Mono.from(connectionFactory.create()).block()
+
+        then:
+        registry.get("r2dbc.pool.acquired").tag("name", "default").gauge().value() == 1
+        registry.get("r2dbc.pool.max.allocated").tag("name", "default").gauge().value() == 4
+        registry.get("r2dbc.pool.acquire").tag("name", "default").tag("result", "success").timer().count() == 1
+        registry.get("r2dbc.pool.connections.created").tag("name", "default").counter().count() >= 1
+
+        when:
+        Mono.from(connection.close()).block()
+
+        then:
+        registry.get("r2dbc.pool.acquired").tag("name", "default").gauge().value() == 0
+    }
+}
@@ -0,0 +1,77 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration
+import io.micronaut.r2dbc.pool.AcquirePriority
+import io.micronaut.r2dbc.pool.PendingAcquireLimitExceededException
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import io.r2dbc.spi.ConnectionFactory
+import io.r2dbc.spi.R2dbcTimeoutException
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///pendingdb")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "1")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "1")
+@Property(name = "r2dbc.datasources.default.pool.max-pending-acquire", value = "1")
+class H2ConnectionPoolPendingAcquireSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test pending acquisitions are bounded and served by priority'() {
+        given:
+        Connection held = Mono.from(connectionFactory.create()).block()
+        List<String> served = Collections.synchronizedList([])
+
+        when:
+        acquire(AcquirePriority.NORMAL).subscribe { c -> served << "normal"; Mono.from(c.close()).subscribe() }
+        acquire(AcquirePriority.HIGH).subscribe { c -> served << "high"; Mono.from(c.close()).subscribe() }
+        acquire(AcquirePriority.NORMAL).block(Duration.ofSeconds(5))
+
+        then:
+        thrown(PendingAcquireLimitExceededException)
+
+        when:
+        Mono.from(held.close()).block()
+
+        then:
+        new PollingConditions(timeout: 5).eventually {
+            assert served == ["high", "normal"]
+        }
+    }
+
+    void 'test the max acquire time covers the time queued for a connection'() {
+        given:
+        R2dbcPoolConfiguration configuration = new R2dbcPoolConfiguration()
+        configuration.maxSize = 1
+        configuration.initialSize = 1
+        configuration.maxPendingAcquire = 4
+        configuration.maxAcquireTime = Duration.ofMillis(200)
+        R2dbcConnectionPool pool = R2dbcConnectionPool.create("timeout", ConnectionFactories.get("r2dbc:h2:mem:///pendingtimeoutdb"), configuration)
+        Connection held = pool.create().block()
+
+        when:
+        pool.create().block(Duration.ofSeconds(5))
+
+        then:
+        thrown(R2dbcTimeoutException)
+        pool.getQueuedAcquisitions(AcquirePriority.NORMAL) == 0
+
+        cleanup:
+        Mono.from(held.close()).block()
+        pool.dispose()
+    }
+
+    private Mono<Connection> acquire(AcquirePriority priority) {
+        return Mono.from(connectionFactory.create())
+                .contextWrite { context -> R2dbcConnectionPool.withPriority(context, priority) }
+    }
+}
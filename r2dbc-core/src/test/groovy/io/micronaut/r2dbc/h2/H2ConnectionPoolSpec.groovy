@@ -0,0 +1,66 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.config.R2dbcPoolConfiguration
+import io.micronaut.r2dbc.statement.StatementCacheConnectionFactory
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.pool.ConnectionPool
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+import java.time.Duration
+
+@MicronautTest(rebuildContext = true)
+class H2ConnectionPoolSpec extends Specification {
+    @Inject ApplicationContext context
+
+    @Property(name = 'r2dbc.datasources.default.url', value = "r2dbc:h2:mem:///pooldb")
+    @Property(name = 'r2dbc.datasources.default.pool.initial-size', value = "2")
+    @Property(name = 'r2dbc.datasources.default.pool.max-size', value = "5")
+    @Property(name = 'r2dbc.datasources.default.pool.max-idle-time', value = "5m")
+    void 'test connection factory is pooled'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory)
+        R2dbcPoolConfiguration poolConfiguration = context.getBean(R2dbcPoolConfiguration)
+
+        expect:
+        poolConfiguration.initialSize == 2
+        poolConfiguration.maxSize == 5
+        poolConfiguration.maxIdleTime == Duration.ofMinutes(5)
+        connectionFactory instanceof ConnectionPool
+        ((ConnectionPool) connectionFactory).metrics.get().maxAllocatedSize == 5
+    }
+
+    @Property(name = 'r2dbc.datasources.default.url', value = "r2dbc:h2:mem:///pooldb")
+    @Property(name = 'r2dbc.datasources.default.pool.enabled', value = "false")
+    void 'test pooling can be disabled'() {
+        expect:
+        !(context.getBean(ConnectionFactory) instanceof ConnectionPool)
+    }
+
+    @Property(name = 'r2dbc.datasources.default.url', value = "r2dbc:pool:h2:mem:///pooldb?maxSize=3")
+    void 'test pool URL is not wrapped twice'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory)
+
+        expect:
+        connectionFactory instanceof ConnectionPool
+        !(((ConnectionPool) connectionFactory).unwrap() instanceof ConnectionPool)
+        ((ConnectionPool) connectionFactory).metrics.get().maxAllocatedSize == 3
+    }
+
+    @Property(name = 'r2dbc.datasources.default.url', value = "r2dbc:pool:h2:mem:///pooldb?maxSize=3")
+    @Property(name = 'r2dbc.datasources.default.statement-cache.enabled', value = "true")
+    void 'test pool URL is not wrapped in the statement cache'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory)
+
+        expect:
+        connectionFactory instanceof ConnectionPool
+        !(((ConnectionPool) connectionFactory).unwrap() instanceof ConnectionPool)
+        !DelegatingConnectionFactory.find(connectionFactory, StatementCacheConnectionFactory).isPresent()
+    }
+}
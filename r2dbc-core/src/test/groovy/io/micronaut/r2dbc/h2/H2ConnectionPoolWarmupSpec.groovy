@@ -0,0 +1,60 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.context.exceptions.BeanContextException
+import io.micronaut.r2dbc.config.R2dbcWarmupConfiguration
+import io.micronaut.r2dbc.pool.ConnectionPoolWarmup
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.pool.ConnectionPool
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+import java.time.Duration
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///warmupdb")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "1")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "5")
+@Property(name = "r2dbc.datasources.default.warmup.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.warmup.connections", value = "3")
+@Property(name = "r2dbc.datasources.default.warmup.concurrency", value = "2")
+class H2ConnectionPoolWarmupSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    ConnectionPoolWarmup warmup
+
+    void 'test connections are opened at startup'() {
+        given:
+        ConnectionPool pool = (ConnectionPool) connectionFactory
+
+        expect:
+        warmup.connections == 3
+        warmup.duration != null
+        pool.metrics.get().allocatedSize() == 3
+        pool.metrics.get().idleSize() == 3
+    }
+
+    void 'test the timeout bounds the whole fail fast warm-up'() {
+        given:
+        ConnectionFactory slow = Stub(ConnectionFactory) {
+            create() >> { Mono.delay(Duration.ofMillis(300)).map { Stub(Connection) { close() >> Mono.empty() } } }
+        }
+        R2dbcWarmupConfiguration configuration = new R2dbcWarmupConfiguration()
+        configuration.enabled = true
+        configuration.connections = 4
+        configuration.concurrency = 1
+        configuration.timeout = Duration.ofMillis(700)
+        configuration.failFast = true
+
+        when:
+        new ConnectionPoolWarmup("slow", slow, configuration, null).warmup().block()
+
+        then:
+        thrown(BeanContextException)
+    }
+}
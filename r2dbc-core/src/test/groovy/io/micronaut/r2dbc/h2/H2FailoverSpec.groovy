@@ -0,0 +1,137 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.r2dbc.config.R2dbcFailoverConfiguration
+import io.micronaut.r2dbc.pool.HostConcurrencyLimit
+import io.micronaut.r2dbc.pool.HostLimitedConnectionFactory
+import io.micronaut.r2dbc.routing.FailoverConnectionFactory
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import io.r2dbc.spi.ConnectionFactory
+import io.r2dbc.spi.R2dbcNonTransientResourceException
+import io.r2dbc.spi.R2dbcTimeoutException
+import reactor.core.publisher.Mono
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.time.Duration
+
+class H2FailoverSpec extends Specification {
+
+    ConnectionFactory up = ConnectionFactories.get("r2dbc:h2:mem:///failover;DB_CLOSE_DELAY=-1")
+    int attempts
+    boolean available
+    ConnectionFactory down = [
+            create     : { attempts++; available ? up.create() : Mono.error(new R2dbcNonTransientResourceException("down")) },
+            getMetadata: { up.metadata }
+    ] as ConnectionFactory
+
+    @AutoCleanup('dispose')
+    FailoverConnectionFactory connectionFactory
+
+    void 'test dead endpoints are skipped until they recover'() {
+        given:
+        def configuration = new R2dbcFailoverConfiguration(failureThreshold: 2, openDuration: Duration.ofMinutes(1), probeInterval: Duration.ofMillis(100))
+        connectionFactory = new FailoverConnectionFactory(["primary:5432": down, "standby:5432": up], configuration)
+
+        when: 'the first endpoint fails below the threshold'
+        acquire()
+
+        then:
+        attempts == 1
+        !connectionFactory.endpoints[0].open
+
+        when: 'the threshold is reached'
+        acquire()
+        acquire()
+
+        then: 'the endpoint is skipped'
+        attempts == 2
+        connectionFactory.endpoints[0].open
+        connectionFactory.endpoints[0].consecutiveFailures == 2
+
+        when: 'the endpoint recovers'
+        available = true
+        def deadline = System.currentTimeMillis() + 5000
+        while (connectionFactory.endpoints[0].open && System.currentTimeMillis() < deadline) {
+            sleep(50)
+        }
+
+        then: 'the background probe makes it available again'
+        !connectionFactory.endpoints[0].open
+        connectionFactory.endpoints[0].consecutiveFailures == 0
+    }
+
+    void 'test the last error is reported when every endpoint fails'() {
+        given:
+        connectionFactory = new FailoverConnectionFactory(["primary": down, "standby": down], new R2dbcFailoverConfiguration(probeInterval: Duration.ZERO))
+
+        when:
+        acquire()
+
+        then:
+        def e = thrown(R2dbcNonTransientResourceException)
+        e.suppressed.length == 1
+        attempts == 2
+    }
+
+    void 'test a probe that never completes counts as a failure'() {
+        given:
+        boolean hanging = false
+        ConnectionFactory unresponsive = [
+                create     : { hanging ? Mono.never() : Mono.error(new R2dbcNonTransientResourceException("down")) },
+                getMetadata: { up.metadata }
+        ] as ConnectionFactory
+        def configuration = new R2dbcFailoverConfiguration(probeInterval: Duration.ofMillis(50), probeTimeout: Duration.ofMillis(100))
+        connectionFactory = new FailoverConnectionFactory(["primary": unresponsive, "standby": up], configuration)
+
+        when:
+        acquire()
+        hanging = true
+        def deadline = System.currentTimeMillis() + 5000
+        while (connectionFactory.endpoints[0].consecutiveFailures < 3 && System.currentTimeMillis() < deadline) {
+            sleep(50)
+        }
+
+        then:
+        connectionFactory.endpoints[0].consecutiveFailures >= 3
+        connectionFactory.endpoints[0].open
+    }
+
+    void 'test a saturated host connection limit does not open the endpoint'() {
+        given:
+        ConnectionFactory limited = new HostLimitedConnectionFactory(up, new HostConcurrencyLimit("primary", 1), Duration.ofMillis(50))
+        def configuration = new R2dbcFailoverConfiguration(failureThreshold: 1, probeInterval: Duration.ZERO)
+        connectionFactory = new FailoverConnectionFactory(["primary": limited, "standby": down], configuration)
+        Connection held = Mono.from(connectionFactory.create()).block()
+
+        when:
+        acquire()
+
+        then:
+        thrown(R2dbcTimeoutException)
+        attempts == 0
+        !connectionFactory.endpoints[0].open
+        connectionFactory.endpoints[0].consecutiveFailures == 0
+
+        cleanup:
+        Mono.from(held.close()).block()
+    }
+
+    void 'test disposal is tracked without background probes'() {
+        given:
+        connectionFactory = new FailoverConnectionFactory(["primary": up], new R2dbcFailoverConfiguration(probeInterval: Duration.ZERO))
+
+        expect:
+        !connectionFactory.disposed
+
+        when:
+        connectionFactory.dispose()
+
+        then:
+        connectionFactory.disposed
+    }
+
+    private void acquire() {
+        Mono.usingWhen(Mono.from(connectionFactory.create()), { Connection c -> Mono.just(c) }, { Connection c -> c.close() }).block()
+    }
+}
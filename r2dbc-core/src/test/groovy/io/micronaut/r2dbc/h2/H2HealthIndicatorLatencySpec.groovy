@@ -0,0 +1,41 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.health.HealthStatus
+import io.micronaut.management.health.indicator.HealthResult
+import io.micronaut.r2dbc.health.R2dbcHealthIndicator
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(rebuildContext = true)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///latencydb")
+@Property(name = "endpoints.health.r2dbc.database-name-to-health-query.H2", value = "SELECT H2VERSION()")
+@Property(name = "endpoints.health.r2dbc.timeout", value = "10s")
+class H2HealthIndicatorLatencySpec extends Specification {
+    @Inject ApplicationContext context
+
+    void 'test latencies are reported'() {
+        when:
+        HealthResult result = Mono.from(context.getBean(R2dbcHealthIndicator).result).block()
+
+        then:
+        result.status == HealthStatus.UP
+        Map details = (Map) result.details
+        details.containsKey('metadata')
+        details.acquireLatencyMillis >= 0
+        details.latencyMillis >= details.acquireLatencyMillis
+    }
+
+    @Property(name = "endpoints.health.r2dbc.degraded-threshold", value = "0s")
+    void 'test slow checks are reported as degraded'() {
+        when:
+        HealthResult result = Mono.from(context.getBean(R2dbcHealthIndicator).result).block()
+
+        then:
+        result.status == R2dbcHealthIndicator.DEGRADED
+        !result.status.operational.orElse(true)
+    }
+}
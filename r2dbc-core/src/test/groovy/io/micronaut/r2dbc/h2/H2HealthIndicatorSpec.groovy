@@ -0,0 +1,37 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.health.HealthStatus
+import io.micronaut.management.health.indicator.HealthResult
+import io.micronaut.r2dbc.health.R2dbcHealthIndicator
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///healthdb")
+@Property(name = "endpoints.health.r2dbc.database-name-to-health-query.H2", value = "SELECT H2VERSION()")
+@Property(name = "endpoints.health.r2dbc.cache-ttl", value = "1m")
+@Property(name = "endpoints.health.r2dbc.pool-state-enabled", value = "true")
+class H2HealthIndicatorSpec extends Specification {
+    @Inject ConnectionFactory connectionFactory
+    @Inject R2dbcHealthIndicator healthIndicator
+
+    void 'test health is reported from the pool state and cached'() {
+        given:
+        Connection connection = Mono.from(connectionFactory.create()).block()
+        Mono.from(connection.close()).block()
+
+        when:
+        HealthResult first = Mono.from(healthIndicator.result).block()
+        HealthResult second = Mono.from(healthIndicator.result).block()
+
+        then:
+        first.status == HealthStatus.UP
+        ((Map) first.details).containsKey('pool')
+        second.is(first)
+    }
+}
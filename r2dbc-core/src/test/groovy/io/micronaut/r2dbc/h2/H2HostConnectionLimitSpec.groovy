@@ -0,0 +1,187 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.pool.HostConcurrencyLimit
+import io.micronaut.r2dbc.pool.HostLimitedConnectionFactory
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import io.r2dbc.spi.R2dbcTimeoutException
+import jakarta.inject.Inject
+import reactor.core.Disposable
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///hostlimitdb")
+@Property(name = "r2dbc.datasources.default.host-max-connections", value = "3")
+@Property(name = "r2dbc.datasources.default.pool.enabled", value = "false")
+@Property(name = "r2dbc.datasources.other.url", value = "r2dbc:h2:mem:///hostlimitotherdb")
+@Property(name = "r2dbc.datasources.other.host-max-connections", value = "2")
+@Property(name = "r2dbc.datasources.other.pool.enabled", value = "false")
+class H2HostConnectionLimitSpec extends Specification {
+    @Inject
+    ApplicationContext context
+
+    void 'test datasources of the same host share the smallest limit'() {
+        given:
+        HostConcurrencyLimit first = limit("default")
+        HostConcurrencyLimit second = limit("other")
+        AtomicInteger maxActive = new AtomicInteger()
+
+        expect:
+        first.is(second)
+        first.maxSize == 2
+
+        when:
+        List<Long> values = Flux.merge(
+                queries(context.getBean(ConnectionFactory, Qualifiers.byName("default")), first, maxActive),
+                queries(context.getBean(ConnectionFactory, Qualifiers.byName("other")), first, maxActive))
+                .collectList()
+                .block()
+
+        then:
+        values.size() == 16
+        maxActive.get() <= 2
+        first.allocated <= 2
+        first.throttled > 0
+        first.queued == 0
+    }
+
+    void 'test waiters are granted permits in order'() {
+        given:
+        HostConcurrencyLimit limit = new HostConcurrencyLimit("localhost:5432", 1)
+        List<Integer> granted = []
+
+        when:
+        limit.acquire(null).block()
+        Disposable cancelled = limit.acquire(null).subscribe({ granted << 1 }, {}, { granted << 1 })
+        limit.acquire(null).subscribe(null, null, { granted << 2 })
+        limit.acquire(null).subscribe(null, null, { granted << 3 })
+
+        then:
+        granted.empty
+        limit.queued == 3
+        limit.throttled == 3
+
+        when:
+        cancelled.dispose()
+        limit.release()
+
+        then:
+        granted == [2]
+        limit.queued == 1
+
+        when:
+        limit.release()
+
+        then:
+        granted == [2, 3]
+        limit.queued == 0
+        limit.allocated == 1
+    }
+
+    void 'test restricting the limit lowers the available permits'() {
+        given:
+        HostConcurrencyLimit limit = new HostConcurrencyLimit("localhost:5432", 4)
+
+        when:
+        limit.restrict(6)
+        limit.restrict(2)
+
+        then:
+        limit.maxSize == 2
+        limit.allocated == 0
+    }
+
+    void 'test waiting for a permit times out'() {
+        given:
+        HostConcurrencyLimit limit = new HostConcurrencyLimit("localhost:5432", 1)
+        limit.acquire(null).block()
+
+        when:
+        limit.acquire(Duration.ofMillis(50)).block()
+
+        then:
+        thrown(R2dbcTimeoutException)
+        limit.queued == 0
+        limit.allocated == 1
+    }
+
+    void 'test waiting reclaims an idle connection'() {
+        given:
+        HostConcurrencyLimit limit = new HostConcurrencyLimit("localhost:5432", 1)
+        AtomicInteger reclaimed = new AtomicInteger()
+        limit.addReclaimer({ -> false })
+        limit.addReclaimer({ ->
+            reclaimed.incrementAndGet()
+            limit.release()
+            true
+        })
+        limit.acquire(null).block()
+
+        when:
+        limit.acquire(Duration.ofSeconds(1)).block()
+
+        then:
+        reclaimed.get() == 1
+        limit.allocated == 1
+        limit.queued == 0
+    }
+
+    void 'test an idle pooled connection is reclaimed for another datasource'() {
+        given:
+        ApplicationContext ctx = ApplicationContext.run(
+                "r2dbc.datasources.idle.url": "r2dbc:h2:mem:///hostlimitidledb",
+                "r2dbc.datasources.idle.host-max-connections": 1,
+                "r2dbc.datasources.idle.pool.initial-size": 0,
+                "r2dbc.datasources.busy.url": "r2dbc:h2:mem:///hostlimitbusydb",
+                "r2dbc.datasources.busy.host-max-connections": 1,
+                "r2dbc.datasources.busy.pool.initial-size": 0)
+        ConnectionFactory idle = ctx.getBean(ConnectionFactory, Qualifiers.byName("idle"))
+        ConnectionFactory busy = ctx.getBean(ConnectionFactory, Qualifiers.byName("busy"))
+
+        when:
+        Mono.usingWhen(idle.create(), { Connection c -> Mono.just(1) }, { Connection c -> c.close() }).block()
+        Integer value = Mono.usingWhen(busy.create(), { Connection c -> Mono.just(2) }, { Connection c -> c.close() })
+                .block(Duration.ofSeconds(5))
+
+        then:
+        value == 2
+
+        when:
+        value = Mono.usingWhen(idle.create(), { Connection c -> Mono.just(3) }, { Connection c -> c.close() })
+                .block(Duration.ofSeconds(5))
+
+        then:
+        value == 3
+
+        cleanup:
+        ctx.close()
+    }
+
+    private HostConcurrencyLimit limit(String name) {
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName(name))
+        return DelegatingConnectionFactory.find(connectionFactory, HostLimitedConnectionFactory).get().limit
+    }
+
+    private static Flux<Long> queries(ConnectionFactory connectionFactory, HostConcurrencyLimit limit, AtomicInteger maxActive) {
+        return Flux.range(1, 8).flatMap({ i ->
+            Flux.usingWhen(connectionFactory.create(),
+                    { Connection c ->
+                        maxActive.accumulateAndGet(limit.allocated, { a, b -> Math.max(a, b) })
+                        Flux.from(c.createStatement("SELECT 1").execute())
+                                .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                                .delayElements(Duration.ofMillis(20))
+                    },
+                    { Connection c -> c.close() })
+        }, 8)
+    }
+}
@@ -0,0 +1,100 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.core.annotation.Introspected
+import io.micronaut.r2dbc.query.ColumnIndexCache
+import io.micronaut.r2dbc.query.IntrospectedRowMapper
+import io.micronaut.r2dbc.query.StreamingQuery
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///introspecteddb")
+class H2IntrospectedRowMapperSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test rows are mapped to introspected beans by column name'() {
+        given:
+        IntrospectedRowMapper<Item> mapper = IntrospectedRowMapper.of(Item)
+
+        when:
+        List<Item> items = StreamingQuery.of("SELECT X AS ID, 'item ' || X AS ITEM_NAME FROM SYSTEM_RANGE(1, 3)")
+                .stream(connectionFactory, mapper)
+                .collectList()
+                .block()
+
+        then:
+        items*.id == [1L, 2L, 3L]
+        items*.itemName == ['item 1', 'item 2', 'item 3']
+
+        when: 'the same mapper maps rows of another shape'
+        List<Item> reordered = StreamingQuery.of("SELECT 'other' AS ITEM_NAME, 7 AS ID")
+                .stream(connectionFactory, mapper)
+                .collectList()
+                .block()
+
+        then:
+        reordered*.id == [7L]
+        reordered*.itemName == ['other']
+    }
+
+    void 'test the shapes of the rows are kept by the column index cache'() {
+        given:
+        ColumnIndexCache cache = new ColumnIndexCache(2)
+        IntrospectedRowMapper<Item> mapper = IntrospectedRowMapper.of(Item, cache)
+
+        when:
+        List<Item> items = ["SELECT X AS ID, 'a' AS ITEM_NAME FROM SYSTEM_RANGE(1, 2)",
+                            "SELECT 'b' AS ITEM_NAME, X AS ID FROM SYSTEM_RANGE(1, 2)",
+                            "SELECT X AS ID, 'c' AS ITEM_NAME FROM SYSTEM_RANGE(1, 2)"].collectMany { sql ->
+            StreamingQuery.of(sql).stream(connectionFactory, mapper).collectList().block()
+        }
+
+        then:
+        items*.id == [1L, 2L, 1L, 2L, 1L, 2L]
+        items*.itemName == ['a', 'a', 'b', 'b', 'c', 'c']
+        cache.size() == 2
+    }
+
+    void 'test a primitive constructor argument without a value fails with a mapping error'() {
+        given:
+        IntrospectedRowMapper<Counter> mapper = IntrospectedRowMapper.of(Counter)
+
+        expect:
+        StreamingQuery.of("SELECT 1 AS ID, 2 AS COUNT").stream(connectionFactory, mapper).blockFirst().count == 2
+
+        when: 'the column is missing'
+        StreamingQuery.of("SELECT 1 AS ID").stream(connectionFactory, mapper).blockFirst()
+
+        then:
+        NoSuchElementException missing = thrown()
+        missing.message.contains("[count]")
+
+        when: 'the column is null'
+        StreamingQuery.of("SELECT 1 AS ID, CAST(NULL AS INT) AS COUNT").stream(connectionFactory, mapper).blockFirst()
+
+        then:
+        IllegalStateException nullValue = thrown()
+        nullValue.message.contains("[count]")
+    }
+
+    @Introspected
+    static class Counter {
+        final long id
+        final int count
+
+        Counter(long id, int count) {
+            this.id = id
+            this.count = count
+        }
+    }
+
+    @Introspected
+    static class Item {
+        Long id
+        String itemName
+    }
+}
@@ -0,0 +1,46 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.health.HealthStatus
+import io.micronaut.management.health.indicator.HealthResult
+import io.micronaut.r2dbc.health.R2dbcHealthIndicator
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.r2dbc.support.LazyConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///lazyhealthdb")
+@Property(name = "r2dbc.datasources.default.initialization", value = "lazy")
+@Property(name = "endpoints.health.r2dbc.database-name-to-health-query.H2", value = "SELECT H2VERSION()")
+@Property(name = "endpoints.health.r2dbc.pool-state-enabled", value = "true")
+class H2LazyHealthIndicatorSpec extends Specification {
+    @Inject ConnectionFactory connectionFactory
+    @Inject R2dbcHealthIndicator healthIndicator
+
+    void 'test a lazy datasource is initialized off the caller thread and reports its pool state'() {
+        given:
+        LazyConnectionFactory lazy = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory).get()
+        String initializingThread = null
+        lazy.whenInitialized { initializingThread = Thread.currentThread().name }
+
+        when:
+        HealthResult first = Mono.from(healthIndicator.result).block()
+
+        then:
+        lazy.initialized
+        initializingThread != Thread.currentThread().name
+        first.status == HealthStatus.UP
+        !((Map) first.details).containsKey('pool')
+
+        when: 'the pool registered after initialization tracks the acquisitions'
+        HealthResult second = Mono.from(healthIndicator.result).block()
+
+        then:
+        second.status == HealthStatus.UP
+        ((Map) second.details).containsKey('pool')
+    }
+}
@@ -0,0 +1,122 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.pool.R2dbcConnectionPool
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.r2dbc.support.LazyConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///lazydb")
+@Property(name = "r2dbc.datasources.default.initialization", value = "lazy")
+@Property(name = "r2dbc.datasources.other.url", value = "r2dbc:h2:mem:///eagerdb")
+class H2LazyInitializationSpec extends Specification {
+    @Inject
+    ApplicationContext context
+
+    void 'test lazy datasource is created by the first acquisition'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName("default"))
+        LazyConnectionFactory lazy = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory).get()
+
+        expect:
+        !lazy.initialized
+        lazy.unwrap() == null
+        lazy.metadata.name == "h2"
+        !DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool).isPresent()
+
+        when:
+        Long value = query(connectionFactory).block()
+
+        then:
+        value == 1
+        lazy.initialized
+        lazy.metadata.name == "H2"
+        DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool).isPresent()
+    }
+
+    void 'test initialization callbacks are called once created'() {
+        given:
+        List<ConnectionFactory> initialized = []
+        LazyConnectionFactory lazy = new LazyConnectionFactory("test", { "h2" }, {
+            ConnectionFactories.get("r2dbc:h2:mem:///lazytestdb")
+        })
+        lazy.whenInitialized { initialized << it }
+
+        expect:
+        initialized.empty
+
+        when:
+        query(lazy).block()
+        lazy.whenInitialized { initialized << it }
+
+        then:
+        initialized.size() == 2
+        initialized.every { it.is(lazy.unwrap()) }
+
+        when:
+        lazy.dispose()
+
+        then:
+        lazy.disposed
+    }
+
+    void 'test the first acquisition creates the connection factory off the subscribing thread'() {
+        given:
+        String thread = null
+        LazyConnectionFactory lazy = new LazyConnectionFactory("test", { "h2" }, {
+            thread = Thread.currentThread().name
+            ConnectionFactories.get("r2dbc:h2:mem:///lazytestdb")
+        })
+
+        when:
+        query(lazy).block()
+
+        then:
+        thread.startsWith("boundedElastic")
+        thread != Thread.currentThread().name
+    }
+
+    void 'test lazy datasource is not created once closed'() {
+        given:
+        LazyConnectionFactory lazy = new LazyConnectionFactory("test", { "h2" }, {
+            ConnectionFactories.get("r2dbc:h2:mem:///lazytestdb")
+        })
+        lazy.dispose()
+
+        when:
+        query(lazy).block()
+
+        then:
+        thrown(IllegalStateException)
+        !lazy.initialized
+    }
+
+    void 'test eager datasource is created on startup'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName("other"))
+
+        expect:
+        !DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory).isPresent()
+        DelegatingConnectionFactory.find(connectionFactory, R2dbcConnectionPool).isPresent()
+    }
+
+    private static Mono<Long> query(ConnectionFactory connectionFactory) {
+        return Flux.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement("SELECT 1").execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                },
+                { Connection c -> c.close() })
+                .next()
+    }
+}
@@ -0,0 +1,63 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.pool.ConnectionPoolWarmup
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.r2dbc.support.LazyConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.pool.ConnectionPool
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///lazywarmupdb")
+@Property(name = "r2dbc.datasources.default.initialization", value = "lazy")
+@Property(name = "r2dbc.datasources.default.pool.initial-size", value = "3")
+@Property(name = "r2dbc.datasources.default.pool.max-size", value = "5")
+@Property(name = "r2dbc.datasources.default.warmup.enabled", value = "true")
+@Property(name = "r2dbc.datasources.eager.url", value = "r2dbc:h2:mem:///eagerwarmupdb")
+@Property(name = "r2dbc.datasources.eager.pool.initial-size", value = "2")
+@Property(name = "r2dbc.datasources.eager.warmup.enabled", value = "true")
+class H2LazyWarmupSpec extends Specification {
+    @Inject
+    ApplicationContext context
+
+    void 'test a lazy datasource is warmed up once initialized'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName("default"))
+        LazyConnectionFactory lazy = DelegatingConnectionFactory.find(connectionFactory, LazyConnectionFactory).get()
+        ConnectionPoolWarmup warmup = context.getBean(ConnectionPoolWarmup, Qualifiers.byName("default"))
+
+        expect: 'startup did not create the connection factory'
+        !warmup.enabled
+        !lazy.initialized
+        warmup.duration == null
+
+        when:
+        Mono.usingWhen(connectionFactory.create(), { Connection c -> Mono.just(1) }, { Connection c -> c.close() }).block()
+
+        then: 'the pool is warmed up to its initial size'
+        new PollingConditions(timeout: 5).eventually {
+            assert warmup.duration != null
+            assert warmup.connections == 3
+            assert DelegatingConnectionFactory.find(connectionFactory, ConnectionPool).get().metrics.get().allocatedSize() == 3
+        }
+    }
+
+    void 'test the initial size of the pool is warmed up by default'() {
+        given:
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName("eager"))
+        ConnectionPoolWarmup warmup = context.getBean(ConnectionPoolWarmup, Qualifiers.byName("eager"))
+
+        expect:
+        warmup.enabled
+        warmup.connections == 2
+        DelegatingConnectionFactory.find(connectionFactory, ConnectionPool).get().metrics.get().allocatedSize() == 2
+    }
+}
@@ -0,0 +1,52 @@
+package io.micronaut.r2dbc.h2
+
+import io.micrometer.observation.Observation
+import io.micrometer.observation.ObservationHandler
+import io.micrometer.observation.ObservationRegistry
+import io.micronaut.r2dbc.config.R2dbcObservationConfiguration
+import io.micronaut.r2dbc.observation.ObservationConnectionFactory
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+class H2ObservationSpec extends Specification {
+
+    void 'test acquisitions, statements and results are observed'() {
+        given:
+        List<Observation.Context> observations = Collections.synchronizedList([])
+        ObservationRegistry registry = ObservationRegistry.create()
+        registry.observationConfig().observationHandler([
+                supportsContext: { Observation.Context context -> true },
+                onStop         : { Observation.Context context -> observations << context }
+        ] as ObservationHandler)
+        def connectionFactory = new ObservationConnectionFactory(
+                ConnectionFactories.get("r2dbc:h2:mem:///observationdb;DB_CLOSE_DELAY=-1"), "default", registry, new R2dbcObservationConfiguration())
+
+        when:
+        List<Long> values = Flux.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement("SELECT X FROM SYSTEM_RANGE(1, 3) WHERE X > \$1 OR X = 42").bind(0, 0).execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                },
+                { Connection c -> c.close() })
+                .collectList()
+                .block()
+
+        then:
+        values == [1, 2, 3]
+        observations*.name as Set == [ObservationConnectionFactory.ACQUIRE, ObservationConnectionFactory.QUERY, ObservationConnectionFactory.RESULT] as Set
+
+        when:
+        Observation.Context query = observations.find { it.name == ObservationConnectionFactory.QUERY }
+        Observation.Context result = observations.find { it.name == ObservationConnectionFactory.RESULT }
+
+        then:
+        query.getLowCardinalityKeyValue("r2dbc.name").value == "default"
+        query.getHighCardinalityKeyValue("db.statement").value == 'SELECT X FROM SYSTEM_RANGE(?, ?) WHERE X > $1 OR X = ?'
+        query.getHighCardinalityKeyValue("r2dbc.bindings").value == "1"
+        result.getHighCardinalityKeyValue("r2dbc.rows").value == "3"
+        result.parentObservation.contextView.is(query)
+    }
+}
@@ -0,0 +1,53 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.pool.ConnectionPoolWarmup
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.pool.ConnectionPool
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.startup.parallelism", value = "2")
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///parallelwarmupdb")
+@Property(name = "r2dbc.datasources.default.warmup.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.warmup.connections", value = "2")
+@Property(name = "r2dbc.datasources.second.url", value = "r2dbc:h2:mem:///parallelwarmupseconddb")
+@Property(name = "r2dbc.datasources.second.warmup.enabled", value = "true")
+@Property(name = "r2dbc.datasources.second.warmup.connections", value = "3")
+@Property(name = "r2dbc.datasources.third.url", value = "r2dbc:h2:mem:///parallelwarmupthirddb")
+@Property(name = "r2dbc.datasources.third.warmup.enabled", value = "true")
+@Property(name = "r2dbc.datasources.third.warmup.connections", value = "1")
+@Property(name = "r2dbc.datasources.cold.url", value = "r2dbc:h2:mem:///parallelwarmupcolddb")
+class H2ParallelWarmupSpec extends Specification {
+    @Inject
+    ApplicationContext context
+
+    void 'test datasources are warmed up on startup'() {
+        expect:
+        warmup(name).enabled == enabled
+        warmup(name).connections == connections
+        (warmup(name).duration != null) == enabled
+        pool(name).metrics.get().allocatedSize() == connections
+
+        where:
+        name      | enabled | connections
+        "default" | true    | 2
+        "second"  | true    | 3
+        "third"   | true    | 1
+        "cold"    | false   | 0
+    }
+
+    private ConnectionPoolWarmup warmup(String name) {
+        return context.getBean(ConnectionPoolWarmup, Qualifiers.byName(name))
+    }
+
+    private ConnectionPool pool(String name) {
+        ConnectionFactory connectionFactory = context.getBean(ConnectionFactory, Qualifiers.byName(name))
+        return DelegatingConnectionFactory.find(connectionFactory, ConnectionPool).get()
+    }
+}
@@ -0,0 +1,227 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.statement.QueryCacheConnectionFactory
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import jakarta.inject.Named
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///querycachedb;DB_CLOSE_DELAY=-1")
+@Property(name = "r2dbc.datasources.default.query-cache.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.query-cache.tables", value = "PUBLIC.country")
+@Property(name = "r2dbc.datasources.small.url", value = "r2dbc:h2:mem:///querycachesmalldb;DB_CLOSE_DELAY=-1")
+@Property(name = "r2dbc.datasources.small.query-cache.enabled", value = "true")
+@Property(name = "r2dbc.datasources.small.query-cache.tables", value = "country")
+@Property(name = "r2dbc.datasources.small.query-cache.max-entries", value = "4")
+@Property(name = "r2dbc.datasources.small.query-cache.max-rows", value = "2")
+@Property(name = "r2dbc.datasources.expiring.url", value = "r2dbc:h2:mem:///querycacheexpiringdb;DB_CLOSE_DELAY=-1")
+@Property(name = "r2dbc.datasources.expiring.query-cache.enabled", value = "true")
+@Property(name = "r2dbc.datasources.expiring.query-cache.tables", value = "country")
+@Property(name = "r2dbc.datasources.expiring.query-cache.ttl", value = "500ms")
+class H2QueryCacheSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    @Named("small")
+    ConnectionFactory small
+
+    @Inject
+    @Named("expiring")
+    ConnectionFactory expiring
+
+    void setup() {
+        [connectionFactory, small, expiring].each { cf ->
+            update(cf, "CREATE TABLE IF NOT EXISTS country(id INT PRIMARY KEY, name VARCHAR(255))").block()
+            update(cf, "CREATE TABLE IF NOT EXISTS book(id INT PRIMARY KEY, title VARCHAR(255))").block()
+            update(cf, "DELETE FROM country").block()
+            update(cf, "DELETE FROM book").block()
+            update(cf, "INSERT INTO country VALUES(1, 'France')").block()
+        }
+    }
+
+    void 'test repeated queries are served from the cache'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory).get()
+        long hits = cache.hits
+
+        when:
+        List<String> first = query(connectionFactory, "SELECT name FROM country WHERE id = \$1", 1).block()
+        List<String> second = query(connectionFactory, "SELECT name FROM country WHERE id = \$1", 1).block()
+        List<String> other = query(connectionFactory, "SELECT name FROM country WHERE id = \$1", 2).block()
+
+        then:
+        first == ["France"]
+        second == ["France"]
+        other == []
+        cache.hits == hits + 1
+        cache.tables == ["country"] as Set
+    }
+
+    void 'test writes invalidate the cached queries of their table'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory).get()
+        query(connectionFactory, "SELECT name FROM country ORDER BY id").block()
+
+        when:
+        update(connectionFactory, "INSERT INTO country VALUES(2, 'Spain')").block()
+
+        then:
+        query(connectionFactory, "SELECT name FROM country ORDER BY id").block() == ["France", "Spain"]
+        cache.invalidations > 0
+    }
+
+    void 'test procedure calls invalidate all the cached queries'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory).get()
+        query(connectionFactory, "SELECT name FROM country ORDER BY id").block()
+
+        expect:
+        cache.size > 0
+
+        when:
+        query(connectionFactory, "CALL 1").block()
+
+        then:
+        cache.size == 0
+    }
+
+    void 'test queries of other tables are not cached'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory).get()
+        update(connectionFactory, "INSERT INTO book VALUES(1, 'Micronaut')").block()
+        long hits = cache.hits
+        long misses = cache.misses
+
+        when:
+        query(connectionFactory, "SELECT title FROM book").block()
+        query(connectionFactory, "SELECT c.name, b.title FROM country c, book b").block()
+
+        then:
+        cache.hits == hits
+        cache.misses == misses
+    }
+
+    void 'test writes in a transaction invalidate the cache on commit'() {
+        given:
+        query(connectionFactory, "SELECT name FROM country ORDER BY id").block()
+
+        when:
+        Mono.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Mono.from(c.beginTransaction())
+                            .then(Flux.from(c.createStatement("UPDATE country SET name = 'Italy' WHERE id = 1").execute())
+                                    .flatMap { result -> result.getRowsUpdated() }
+                                    .then())
+                            .then(Mono.from(c.commitTransaction()))
+                },
+                { Connection c -> c.close() })
+                .block()
+
+        then:
+        query(connectionFactory, "SELECT name FROM country ORDER BY id").block() == ["Italy"]
+    }
+
+    void 'test cached results expire'() {
+        given:
+        query(expiring, "SELECT name FROM country").block()
+        // written behind the back of the cache, so only the expiration reveals it
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(expiring, QueryCacheConnectionFactory).get()
+        update(cache.unwrap(), "UPDATE country SET name = 'Germany'").block()
+
+        when:
+        List<String> cached = query(expiring, "SELECT name FROM country").block()
+
+        then:
+        cached == ["France"]
+
+        when:
+        Thread.sleep(700)
+
+        then:
+        query(expiring, "SELECT name FROM country").block() == ["Germany"]
+    }
+
+    void 'test results larger than the cache are passed through uncached'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(small, QueryCacheConnectionFactory).get()
+        update(small, "INSERT INTO country VALUES(2, 'Spain')").block()
+        update(small, "INSERT INTO country VALUES(3, 'Italy')").block()
+        cache.invalidateAll()
+
+        when:
+        List<String> names = query(small, "SELECT name FROM country ORDER BY id").block()
+
+        then:
+        names == ["France", "Spain", "Italy"]
+        cache.size == 0
+        cache.rows == 0
+    }
+
+    void 'test results of cancelled queries are not cached'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(connectionFactory, QueryCacheConnectionFactory).get()
+        update(connectionFactory, "INSERT INTO country VALUES(2, 'Spain')").block()
+        cache.invalidateAll()
+
+        when:
+        String first = Mono.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement("SELECT name FROM country ORDER BY id").execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, String) } }
+                            .next()
+                },
+                { Connection c -> c.close() })
+                .block()
+
+        then:
+        first == "France"
+        cache.size == 0
+    }
+
+    void 'test frequently used queries are not evicted by one-off queries'() {
+        given:
+        QueryCacheConnectionFactory cache = DelegatingConnectionFactory.find(small, QueryCacheConnectionFactory).get()
+        cache.invalidateAll()
+        5.times { query(small, "SELECT name FROM country WHERE id = \$1", 1).block() }
+
+        when:
+        (100..119).each { id -> query(small, "SELECT name FROM country WHERE id = \$1", id).block() }
+        long hits = cache.hits
+        query(small, "SELECT name FROM country WHERE id = \$1", 1).block()
+
+        then:
+        cache.size <= 4
+        cache.evictions > 0
+        cache.hits == hits + 1
+    }
+
+    private static Mono<List<String>> query(ConnectionFactory cf, String sql, Object... bindings) {
+        return Mono.usingWhen(cf.create(),
+                { Connection c ->
+                    def statement = c.createStatement(sql)
+                    bindings.eachWithIndex { value, i -> statement.bind(i, value) }
+                    Flux.from(statement.execute())
+                            .flatMap { result -> result.map { row, metadata -> (1..metadata.columnMetadatas.size()).collect { i -> row.get(i - 1, String) }.join(" ") } }
+                            .collectList()
+                },
+                { Connection c -> c.close() })
+    }
+
+    private static Mono<Long> update(ConnectionFactory cf, String sql) {
+        return Mono.usingWhen(cf.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement(sql).execute())
+                            .flatMap { result -> result.getRowsUpdated() }
+                            .reduce(0L, { a, b -> a + b })
+                },
+                { Connection c -> c.close() })
+    }
+}
@@ -0,0 +1,67 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.management.QueryStatisticsEndpoint
+import io.micronaut.r2dbc.statement.QueryStatistics
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import spock.lang.Specification
+
+import java.time.Duration
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///querystatsdb")
+@Property(name = "r2dbc.query-statistics.enabled", value = "true")
+class H2QueryStatisticsSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    QueryStatistics queryStatistics
+
+    @Inject
+    QueryStatisticsEndpoint endpoint
+
+    void 'test queries are aggregated by shape'() {
+        given:
+        queryStatistics.reset()
+
+        when:
+        query("SELECT X FROM SYSTEM_RANGE(1, 10)")
+        query("SELECT X FROM SYSTEM_RANGE(1, 20)")
+
+        then:
+        List<QueryStatistics.QueryStatistic> queries = queryStatistics.queries
+        queries.size() == 1
+        queries[0].datasource == "default"
+        queries[0].sql == 'SELECT X FROM SYSTEM_RANGE(?, ?)'
+        queries[0].calls == 2
+        queries[0].rows == 30
+        queries[0].errors == 0
+        queries[0].totalTime > Duration.ZERO
+        queries[0].getPercentile(99) >= queries[0].maxTime
+
+        and:
+        endpoint.queryStatistics()[0]["calls"] == 2L
+
+        when:
+        endpoint.reset()
+
+        then:
+        queryStatistics.queries.isEmpty()
+    }
+
+    private List<Long> query(String sql) {
+        return Flux.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement(sql).execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                },
+                { Connection c -> c.close() })
+                .collectList()
+                .block()
+    }
+}
@@ -0,0 +1,87 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.context.ApplicationContext
+import io.micronaut.r2dbc.routing.ReadWriteRoutingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///routingprimary")
+@Property(name = "r2dbc.datasources.default.options.DB_CLOSE_DELAY", value = "-1")
+@Property(name = "r2dbc.datasources.default.read-replicas.datasources", value = "replica")
+@Property(name = "r2dbc.datasources.replica.url", value = "r2dbc:h2:mem:///routingreplica")
+@Property(name = "r2dbc.datasources.replica.options.DB_CLOSE_DELAY", value = "-1")
+class H2ReadWriteRoutingSpec extends Specification {
+    @Inject ApplicationContext context
+    @Inject ConnectionFactory connectionFactory
+
+    void 'test read-only connections are acquired from the replica'() {
+        given:
+        ConnectionFactory replica = context.getBean(ConnectionFactory, Qualifiers.byName("replica"))
+        execute(Mono.from(replica.create()), "CREATE TABLE replica_only(id INT)").block()
+
+        expect:
+        connectionFactory instanceof ReadWriteRoutingConnectionFactory
+        execute(Mono.from(connectionFactory.create()), "SELECT COUNT(*) FROM replica_only")
+                .contextWrite(ReadWriteRoutingConnectionFactory::readOnly)
+                .block() == 0
+
+        when:
+        execute(Mono.from(connectionFactory.create()), "SELECT COUNT(*) FROM replica_only").block()
+
+        then:
+        thrown(Exception)
+    }
+
+    void 'test read replicas cannot have read replicas of their own'() {
+        given:
+        ApplicationContext ctx = ApplicationContext.run(
+                'r2dbc.datasources.default.url': 'r2dbc:h2:mem:///routingcycleprimary',
+                'r2dbc.datasources.default.read-replicas.datasources': 'replica',
+                'r2dbc.datasources.replica.url': 'r2dbc:h2:mem:///routingcyclereplica',
+                'r2dbc.datasources.replica.read-replicas.datasources': nested,
+                'r2dbc.datasources.other.url': 'r2dbc:h2:mem:///routingcycleother'
+        )
+
+        when:
+        ctx.getBean(ConnectionFactory)
+
+        then:
+        Exception e = thrown()
+        causes(e).any { it.message?.contains(message) }
+
+        cleanup:
+        ctx.close()
+
+        where:
+        nested    | message
+        'default' | 'R2DBC datasources [default] and [replica] cannot be read replicas of each other'
+        'other'   | 'R2DBC datasource [replica] is a read replica of [default] and cannot have read replicas of its own'
+    }
+
+    private static List<Throwable> causes(Throwable e) {
+        List<Throwable> causes = []
+        for (Throwable t = e; t != null && !causes.contains(t); t = t.cause) {
+            causes << t
+        }
+        return causes
+    }
+
+    private static Mono<Object> execute(Mono<Connection> connection, String sql) {
+        return Mono.usingWhen(connection,
+                { Connection c ->
+                    Flux.from(c.createStatement(sql).execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0) ?: 0 } }
+                            .defaultIfEmpty(0)
+                            .next()
+                },
+                { Connection c -> c.close() })
+    }
+}
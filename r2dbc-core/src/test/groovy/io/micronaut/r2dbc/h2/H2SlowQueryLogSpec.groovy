@@ -0,0 +1,131 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.ApplicationContext
+import io.micronaut.context.annotation.Property
+import io.micronaut.inject.qualifiers.Qualifiers
+import io.micronaut.r2dbc.management.SlowQueriesEndpoint
+import io.micronaut.r2dbc.statement.SlowQueryLog
+import io.micronaut.r2dbc.statement.StatementExecution
+import io.micronaut.r2dbc.statement.StatementExecutionConnectionFactory
+import io.micronaut.r2dbc.statement.StatementExecutionListener
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///slowquerydb")
+@Property(name = "r2dbc.datasources.default.slow-query-log.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.slow-query-log.threshold", value = "0s")
+@Property(name = "r2dbc.datasources.default.slow-query-log.top-queries", value = "2")
+class H2SlowQueryLogSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    @Inject
+    SlowQueryLog slowQueryLog
+
+    @Inject
+    SlowQueriesEndpoint endpoint
+
+    void 'test slow queries are kept by shape with redacted bindings'() {
+        when:
+        query("SELECT X FROM SYSTEM_RANGE(1, 10) WHERE X > \$1", 5)
+        query("SELECT X FROM SYSTEM_RANGE(1, 20) WHERE X > \$1", 7)
+
+        then:
+        List<SlowQueryLog.SlowQuery> slowest = slowQueryLog.slowestQueries["default"]
+        slowest.size() == 1
+        slowest[0].sql == 'SELECT X FROM SYSTEM_RANGE(?, ?) WHERE X > $1'
+        slowest[0].count == 2
+        slowest[0].lastBindings == "[0=?]"
+
+        and:
+        endpoint.slowQueries()["default"][0]["count"] == 2L
+    }
+
+    void 'test bound values are sampled when not redacted'() {
+        given:
+        ApplicationContext ctx = ApplicationContext.run(
+                "r2dbc.datasources.sampled.url": "r2dbc:h2:mem:///slowquerysampleddb",
+                "r2dbc.datasources.sampled.slow-query-log.enabled": true,
+                "r2dbc.datasources.sampled.slow-query-log.threshold": "0s",
+                "r2dbc.datasources.sampled.slow-query-log.redact-bindings": false,
+                "r2dbc.datasources.sampled.slow-query-log.binding-sample-rate": rate)
+        ConnectionFactory sampled = ctx.getBean(ConnectionFactory, Qualifiers.byName("sampled"))
+
+        when:
+        query(sampled, "SELECT X FROM SYSTEM_RANGE(1, 10) WHERE X > \$1", 5)
+
+        then:
+        ctx.getBean(SlowQueryLog).slowestQueries["sampled"][0].lastBindings == bindings
+
+        cleanup:
+        ctx.close()
+
+        where:
+        rate | bindings
+        1.0  | "[0=5]"
+        0.0  | "[0=?]"
+    }
+
+    void 'test the endpoint requires a datasource with a slow query log'() {
+        given:
+        ApplicationContext ctx = ApplicationContext.run("r2dbc.datasources.plain.url": "r2dbc:h2:mem:///slowqueryplaindb")
+
+        expect:
+        !ctx.containsBean(SlowQueriesEndpoint)
+
+        cleanup:
+        ctx.close()
+    }
+
+    void 'test bindings are only recorded for the listeners requiring them'() {
+        given:
+        List<StatementExecution> executions = []
+        StatementExecutionListener listener = new StatementExecutionListener() {
+            @Override
+            boolean requiresBindings(String datasource) {
+                return required
+            }
+
+            @Override
+            void onExecution(StatementExecution execution) {
+                executions << execution
+            }
+        }
+        ConnectionFactory instrumented = new StatementExecutionConnectionFactory(
+                ConnectionFactories.get("r2dbc:h2:mem:///slowquerybindingsdb"), "bindings", [listener])
+
+        when:
+        query(instrumented, "SELECT X FROM SYSTEM_RANGE(1, 10) WHERE X > \$1", 5)
+
+        then:
+        executions.size() == 1
+        executions[0].bindings == recorded
+
+        where:
+        required | recorded
+        true     | ["0": 5L]
+        false    | [:]
+    }
+
+    private List<Long> query(String sql, long value) {
+        return query(connectionFactory, sql, value)
+    }
+
+    private static List<Long> query(ConnectionFactory connectionFactory, String sql, long value) {
+        return Flux.usingWhen(connectionFactory.create(),
+                { Connection c ->
+                    Flux.from(c.createStatement(sql).bind(0, value).execute())
+                            .flatMap { result -> result.map { row, metadata -> row.get(0, Long) } }
+                },
+                { Connection c -> c.close() })
+                .collectList()
+                .block()
+    }
+}
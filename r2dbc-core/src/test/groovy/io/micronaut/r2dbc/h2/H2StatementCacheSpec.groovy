@@ -0,0 +1,52 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.statement.StatementCacheConnectionFactory
+import io.micronaut.r2dbc.support.DelegatingConnectionFactory
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.Connection
+import io.r2dbc.spi.ConnectionFactories
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///statementcachedb")
+@Property(name = "r2dbc.datasources.default.statement-cache.enabled", value = "true")
+@Property(name = "r2dbc.datasources.default.statement-cache.size", value = "2")
+class H2StatementCacheSpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test statement cache statistics are not tracked for a driver without statement cache'() {
+        expect:
+        !DelegatingConnectionFactory.find(connectionFactory, StatementCacheConnectionFactory).isPresent()
+    }
+
+    void 'test statement cache statistics are tracked per connection'() {
+        given:
+        StatementCacheConnectionFactory cache = new StatementCacheConnectionFactory(
+                ConnectionFactories.get("r2dbc:h2:mem:///statementcachestatsdb"), 2)
+
+        when:
+        execute(cache, "SELECT 1", "SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1")
+
+        then:
+        cache.hits == 1
+        cache.misses == 4
+        cache.evictions == 2
+    }
+
+    private static void execute(ConnectionFactory cf, String... statements) {
+        Mono.usingWhen(cf.create(),
+                { Connection c ->
+                    Flux.fromArray(statements)
+                            .concatMap { sql -> Flux.from(c.createStatement(sql).execute()).flatMap { result -> result.getRowsUpdated() } }
+                            .then()
+                },
+                { Connection c -> c.close() })
+                .block()
+    }
+}
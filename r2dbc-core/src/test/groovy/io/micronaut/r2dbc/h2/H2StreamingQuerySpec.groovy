@@ -0,0 +1,37 @@
+package io.micronaut.r2dbc.h2
+
+import io.micronaut.context.annotation.Property
+import io.micronaut.r2dbc.query.RowMapper
+import io.micronaut.r2dbc.query.StreamingQuery
+import io.micronaut.test.extensions.spock.annotation.MicronautTest
+import io.r2dbc.spi.ConnectionFactory
+import jakarta.inject.Inject
+import spock.lang.Specification
+
+@MicronautTest(transactional = false)
+@Property(name = "r2dbc.datasources.default.url", value = "r2dbc:h2:mem:///streamingdb")
+class H2StreamingQuerySpec extends Specification {
+    @Inject
+    ConnectionFactory connectionFactory
+
+    void 'test rows are streamed with bounded demand'() {
+        given:
+        StreamingQuery query = StreamingQuery.of("SELECT X FROM SYSTEM_RANGE(1, \$1)")
+                .bind(0, 10_000)
+                .fetchSize(100)
+                .prefetch(16)
+
+        when:
+        List<Long> values = query.stream(connectionFactory, RowMapper.column(0, Long))
+                .collectList()
+                .block()
+
+        then:
+        values.size() == 10_000
+        values.first() == 1L
+        values.last() == 10_000L
+
+        and: 'the query can be streamed again and cancelled'
+        query.stream(connectionFactory, RowMapper.column(0, Long)).take(3).collectList().block() == [1L, 2L, 3L]
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2024 original authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package example.controllers;
+
+import io.micronaut.r2dbc.support.ConnectionFactoryProviders;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ConnectionFactoryProvider;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the native image resolves the driver of the datasource from the build-time provider index, to the same
+ * connection factory as asking every provider of the image.
+ */
+@MicronautTest(transactional = false)
+public class DriverResolutionTest {
+
+    @Inject
+    ConnectionFactoryOptions options;
+
+    @Test
+    void driverIsResolvedFromTheIndex() {
+        assertNotNull(ConnectionFactories.class.getClassLoader().getResource(ConnectionFactoryProviders.INDEX));
+
+        Optional<ConnectionFactoryProvider> provider = ConnectionFactoryProviders.find(options);
+
+        assertTrue(provider.isPresent());
+        assertEquals(0, ConnectionFactoryProviders.getFallbacks(), "the driver was resolved by loading every provider");
+        assertEquals(ConnectionFactories.get(options).getClass(), ConnectionFactoryProviders.create(options).getClass());
+    }
+}